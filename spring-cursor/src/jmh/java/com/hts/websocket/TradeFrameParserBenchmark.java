@@ -0,0 +1,99 @@
+package com.hts.websocket;
+
+import com.hts.websocket.dto.RealTimeTradeData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TradeFrameParser} with the previous split/BigDecimal decoding, per frame.
+ *
+ * Run with {@code ./gradlew jmh}; add {@code -prof gc} through {@code jmh.profilers} to see allocation per op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TradeFrameParserBenchmark {
+
+    @Param({"1", "4"})
+    int records;
+
+    private String frame;
+    private TradeFrameParser parser;
+
+    @Setup
+    public void setUp() {
+        StringJoiner data = new StringJoiner("^");
+        for (int i = 0; i < records; i++) {
+            data.add(record(i));
+        }
+        frame = "0|" + TradeFrameParser.TR_ID + "|" + String.format("%03d", records) + "|" + data;
+        parser = new TradeFrameParser();
+    }
+
+    @Benchmark
+    public void indexParser(Blackhole blackhole) {
+        parser.parse(frame, tick -> blackhole.consume(tick.getPrice()));
+    }
+
+    /**
+     * The decoding {@code KoreaInvestmentWebSocketClient.processMessage} used to do, applied to every record so
+     * both sides produce the same ticks.
+     */
+    @Benchmark
+    public void splitAndBigDecimal(Blackhole blackhole) {
+        String[] segments = frame.split("\\|");
+        String[] fields = segments[3].split("\\^");
+        int count = Integer.parseInt(segments[2]);
+        for (int r = 0; r < count; r++) {
+            int base = r * TradeFrameParser.FIELDS_PER_RECORD;
+            blackhole.consume(new RealTimeTradeData(
+                    fields[base],
+                    fields[base + 1],
+                    new BigDecimal(fields[base + 2]),
+                    new BigDecimal(fields[base + 7]),
+                    new BigDecimal(fields[base + 8]),
+                    new BigDecimal(fields[base + 9]),
+                    Long.parseLong(fields[base + 12]),
+                    Long.parseLong(fields[base + 14]),
+                    fields[base + 33]
+            ));
+        }
+    }
+
+    private static String record(int i) {
+        String[] fields = new String[TradeFrameParser.FIELDS_PER_RECORD];
+        Arrays.fill(fields, "0");
+        fields[0] = String.format("%06d", 5930 + i);
+        fields[1] = "093354";
+        fields[2] = String.valueOf(71900 + i * 100);
+        fields[3] = "5";
+        fields[4] = "-100";
+        fields[5] = "-0.14";
+        fields[7] = "71000";
+        fields[8] = "72500";
+        fields[9] = "70900";
+        fields[12] = "1250";
+        fields[13] = "8123456";
+        fields[14] = "583412345600";
+        fields[33] = "20250617";
+        return String.join("^", fields);
+    }
+}
@@ -0,0 +1,103 @@
+package com.hts.chart;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Compact, immutable candle used on the in-memory and aggregation paths.
+ *
+ * Timestamps are "local epoch millis" (the wall-clock {@link LocalDateTime} read as UTC), so bucket boundaries
+ * computed on them line up with local minutes, hours and days. Prices are fixed-point longs with
+ * {@link #PRICE_SCALE} fraction digits, matching the {@code chart_data} column scale; KRX prices in won are
+ * exact. Conversion to {@link BigDecimal} and {@link LocalDateTime} happens only at the API edge.
+ */
+public final class Candle {
+
+    public static final int PRICE_SCALE = 2;
+
+    private final String ticker;
+    private final long timestamp;
+    private final long open;
+    private final long high;
+    private final long low;
+    private final long close;
+    private final long volume;
+
+    public Candle(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        this.ticker = ticker;
+        this.timestamp = timestamp;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public long getClose() {
+        return close;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    public ChartDataResponse toResponse() {
+        return new ChartDataResponse(
+                ticker,
+                toLocalDateTime(timestamp),
+                toDecimal(open),
+                toDecimal(high),
+                toDecimal(low),
+                toDecimal(close),
+                volume
+        );
+    }
+
+    /**
+     * A sink that appends every candle it receives to the list.
+     */
+    public static CandleSink collectInto(List<Candle> result) {
+        return (ticker, timestamp, open, high, low, close, volume) ->
+                result.add(new Candle(ticker, timestamp, open, high, low, close, volume));
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public static long toFixed(BigDecimal value) {
+        return value.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long fixed) {
+        return BigDecimal.valueOf(fixed, PRICE_SCALE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.hts.chart;
+
+/**
+ * Fixed-capacity primitive staging area for candles. Used to copy a chunk out from under a lock and hand it
+ * to a slow consumer, such as a socket, after the lock is released.
+ */
+final class CandleBuffer implements CandleSink {
+
+    private final long[] timestamps;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+    private int size;
+
+    CandleBuffer(int capacity) {
+        this.timestamps = new long[capacity];
+        this.open = new long[capacity];
+        this.high = new long[capacity];
+        this.low = new long[capacity];
+        this.close = new long[capacity];
+        this.volume = new long[capacity];
+    }
+
+    @Override
+    public void accept(String ticker, long timestamp, long o, long h, long l, long c, long v) {
+        timestamps[size] = timestamp;
+        open[size] = o;
+        high[size] = h;
+        low[size] = l;
+        close[size] = c;
+        volume[size] = v;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    long lastTimestamp() {
+        return timestamps[size - 1];
+    }
+
+    void drainTo(String ticker, CandleSink sink) {
+        for (int i = 0; i < size; i++) {
+            sink.accept(ticker, timestamps[i], open[i], high[i], low[i], close[i], volume[i]);
+        }
+        size = 0;
+    }
+}
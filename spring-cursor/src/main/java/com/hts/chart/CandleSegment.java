@@ -0,0 +1,229 @@
+package com.hts.chart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only, memory-mapped candle file.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * header     magic:int  version:int  tickerCount:int  reserved:int  sourceLastModified:long  recordCount:long
+ * directory  tickerCount x { ticker:16 bytes UTF-8, zero padded  firstRecord:long  count:int  reserved:int }
+ * records    recordCount x { timestamp:long  open:long  high:long  low:long  close:long  volume:long }
+ * </pre>
+ * Records of one ticker are contiguous and time-sorted, with the same encoding as {@link ChartSeries}. Each
+ * ticker's records are mapped separately, so files larger than 2 GB are fine and reads never touch the heap.
+ */
+final class CandleSegment {
+
+    private static final int MAGIC = 0x48545343; // "HTSC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int TICKER_BYTES = 16;
+    private static final int DIRECTORY_ENTRY_BYTES = 32;
+    static final int RECORD_BYTES = 48;
+
+    private final long sourceLastModified;
+    private final Map<String, TickerRecords> recordsByTicker;
+
+    private CandleSegment(long sourceLastModified, Map<String, TickerRecords> recordsByTicker) {
+        this.sourceLastModified = sourceLastModified;
+        this.recordsByTicker = recordsByTicker;
+    }
+
+    long getSourceLastModified() {
+        return sourceLastModified;
+    }
+
+    Set<String> tickers() {
+        return recordsByTicker.keySet();
+    }
+
+    /**
+     * Pushes the candles with {@code from <= timestamp <= to} to the sink in time order.
+     */
+    void forEach(String ticker, long from, long to, CandleSink sink) {
+        TickerRecords records = recordsByTicker.get(ticker);
+        if (records != null) {
+            records.forEach(ticker, from, to, sink);
+        }
+    }
+
+    static CandleSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a candle segment (or unsupported version): " + file);
+            }
+            int tickerCount = header.getInt(8);
+            long sourceLastModified = header.getLong(16);
+
+            ByteBuffer directory = ByteBuffer.allocate(tickerCount * DIRECTORY_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, directory, HEADER_BYTES);
+
+            long recordsStart = HEADER_BYTES + (long) tickerCount * DIRECTORY_ENTRY_BYTES;
+            Map<String, TickerRecords> recordsByTicker = new HashMap<>();
+            byte[] tickerBytes = new byte[TICKER_BYTES];
+            for (int i = 0; i < tickerCount; i++) {
+                int entry = i * DIRECTORY_ENTRY_BYTES;
+                directory.get(entry, tickerBytes);
+                long firstRecord = directory.getLong(entry + TICKER_BYTES);
+                int count = directory.getInt(entry + TICKER_BYTES + 8);
+
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        recordsStart + firstRecord * RECORD_BYTES, (long) count * RECORD_BYTES);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                recordsByTicker.put(decodeTicker(tickerBytes), new TickerRecords(buffer, count));
+            }
+            return new CandleSegment(sourceLastModified, recordsByTicker);
+        }
+    }
+
+    /**
+     * Writes the series to a temporary file next to the target and moves it into place, so readers never see
+     * a partially written segment.
+     */
+    static void write(Path file, long sourceLastModified, Map<String, ChartSeries> seriesByTicker) throws IOException {
+        String[] tickers = seriesByTicker.keySet().toArray(new String[0]);
+        Arrays.sort(tickers);
+
+        long recordCount = 0;
+        ByteBuffer directory = ByteBuffer.allocate(tickers.length * DIRECTORY_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (String ticker : tickers) {
+            int count = seriesByTicker.get(ticker).size();
+            directory.put(encodeTicker(ticker));
+            directory.putLong(recordCount);
+            directory.putInt(count);
+            directory.putInt(0);
+            recordCount += count;
+        }
+        directory.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(tickers.length).putInt(0)
+                .putLong(sourceLastModified).putLong(recordCount);
+        header.flip();
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            writeFully(channel, directory);
+
+            ByteBuffer records = ByteBuffer.allocate(RECORD_BYTES * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (String ticker : tickers) {
+                seriesByTicker.get(ticker).forEach(Long.MIN_VALUE, Long.MAX_VALUE, (t, timestamp, open, high, low, close, volume) -> {
+                    if (!records.hasRemaining()) {
+                        flush(channel, records);
+                    }
+                    records.putLong(timestamp).putLong(open).putLong(high).putLong(low).putLong(close).putLong(volume);
+                });
+            }
+            flush(channel, records);
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer records) {
+        records.flip();
+        try {
+            writeFully(channel, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        records.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of candle segment");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static byte[] encodeTicker(String ticker) {
+        byte[] encoded = ticker.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > TICKER_BYTES) {
+            throw new IllegalArgumentException("Ticker too long for candle segment: " + ticker);
+        }
+        return Arrays.copyOf(encoded, TICKER_BYTES);
+    }
+
+    private static String decodeTicker(byte[] bytes) {
+        int length = 0;
+        while (length < bytes.length && bytes[length] != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One ticker's records, addressed by index with absolute reads so concurrent readers never share a position.
+     */
+    private static final class TickerRecords {
+
+        private final MappedByteBuffer buffer;
+        private final int count;
+
+        TickerRecords(MappedByteBuffer buffer, int count) {
+            this.buffer = buffer;
+            this.count = count;
+        }
+
+        void forEach(String ticker, long from, long to, CandleSink sink) {
+            for (int i = lowerBound(from); i < count; i++) {
+                int offset = i * RECORD_BYTES;
+                long timestamp = buffer.getLong(offset);
+                if (timestamp > to) {
+                    break;
+                }
+                sink.accept(ticker, timestamp,
+                        buffer.getLong(offset + 8),
+                        buffer.getLong(offset + 16),
+                        buffer.getLong(offset + 24),
+                        buffer.getLong(offset + 32),
+                        buffer.getLong(offset + 40));
+            }
+        }
+
+        private int lowerBound(long key) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (buffer.getLong(mid * RECORD_BYTES) < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hts.chart;
+
+/**
+ * Receives candles one at a time as primitive values in the {@link Candle} encoding, so producers and
+ * aggregation stages can be chained without allocating an object per row.
+ */
+@FunctionalInterface
+public interface CandleSink {
+    void accept(String ticker, long timestamp, long open, long high, long low, long close, long volume);
+}
@@ -0,0 +1,85 @@
+package com.hts.chart;
+
+import java.util.List;
+
+/**
+ * Single-pass OHLCV rollup of time-ordered candles into interval-aligned buckets.
+ *
+ * Rows are pushed through {@link #accept}; a bucket is emitted to the downstream sink as soon as a row for a
+ * later bucket (or another ticker) arrives, and the last open bucket is emitted by {@link #finish()}. Only the
+ * running bucket is kept, so memory use is constant regardless of the input size.
+ */
+final class ChartAggregator implements CandleSink {
+
+    private final ChartInterval interval;
+    private final CandleSink downstream;
+
+    private boolean hasBucket;
+    private String ticker;
+    private long bucket;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long volume;
+
+    ChartAggregator(ChartInterval interval, CandleSink downstream) {
+        this.interval = interval;
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        long start = interval.bucketStart(timestamp);
+        if (hasBucket && (start != bucket || !ticker.equals(this.ticker))) {
+            emit();
+        }
+
+        if (!hasBucket) {
+            this.hasBucket = true;
+            this.ticker = ticker;
+            this.bucket = start;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+            this.volume = volume;
+            return;
+        }
+
+        this.high = Math.max(this.high, high);
+        this.low = Math.min(this.low, low);
+        this.close = close;
+        this.volume += volume;
+    }
+
+    /**
+     * Emits the bucket still being accumulated, if any.
+     */
+    void finish() {
+        if (hasBucket) {
+            emit();
+        }
+    }
+
+    private void emit() {
+        hasBucket = false;
+        downstream.accept(ticker, bucket, open, high, low, close, volume);
+    }
+
+    /**
+     * A sink that converts each candle it receives into a {@link ChartData} row, for repositories that still
+     * expose entity lists.
+     */
+    static CandleSink collectInto(List<ChartData> result) {
+        return (ticker, timestamp, open, high, low, close, volume) -> result.add(new ChartData(
+                ticker,
+                Candle.toLocalDateTime(timestamp),
+                Candle.toDecimal(open),
+                Candle.toDecimal(high),
+                Candle.toDecimal(low),
+                Candle.toDecimal(close),
+                volume
+        ));
+    }
+}
@@ -1,10 +1,15 @@
 package com.hts.chart;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hts.common.exception.ErrorResponse;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -14,9 +19,11 @@ import java.util.List;
 public class ChartController {
 
     private final ChartService chartService;
+    private final ObjectMapper objectMapper;
 
-    public ChartController(ChartService chartService) {
+    public ChartController(ChartService chartService, ObjectMapper objectMapper) {
         this.chartService = chartService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{ticker}")
@@ -39,4 +46,38 @@ public class ChartController {
 
         return ResponseEntity.ok(chartData);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Same candles as {@link #getChartData}, written to the response as they are produced instead of being
+     * collected first, so large ranges use constant memory.
+     */
+    @GetMapping(value = "/{ticker}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> streamChartData(
+            @PathVariable String ticker,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1m") String interval) {
+
+        if (!ChartInterval.isValid(interval)) {
+            ErrorResponse error = new ErrorResponse(
+                "Invalid interval value",
+                "Valid intervals are: " + String.join(", ", ChartInterval.getValidValues())
+            );
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        ChartInterval chartInterval = ChartInterval.fromString(interval);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                ChartDataJsonWriter writer = new ChartDataJsonWriter(generator);
+                writer.writeStart();
+                chartService.streamChartData(ticker, from, to, chartInterval, writer);
+                writer.writeEnd();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,255 @@
+package com.hts.chart;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parses the minute-chart CSV export (종목명, 종목코드, 영업일자, 체결시간, 현재가, 시가, 고가, 저가, 체결거래량, ...)
+ * row by row into primitive candles.
+ *
+ * Parsing is strict so that a file caught mid-write is rejected rather than loaded short: a row with missing
+ * columns, a bad date or time, or a non-numeric value fails the read. Blank lines are skipped.
+ */
+public final class ChartCsvReader {
+
+    private static final long MIN_CHUNK_BYTES = 8L << 20;
+    private static final long MAX_CHUNK_BYTES = 128L << 20;
+    /** Upper bound on one line, so a chunk can be mapped with enough slack to finish its last line. */
+    private static final int MAX_LINE_BYTES = 64 << 10;
+
+    private ChartCsvReader() {
+    }
+
+    /**
+     * Streams every data row to the sink without holding the file in memory and returns the number of rows read.
+     */
+    static int read(String file, CandleSink sink) throws IOException, CsvException {
+        int rows = 0;
+        try (CSVReader reader = new CSVReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            // Skip header row
+            reader.readNext();
+
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                if (accept(row, sink)) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the whole file into one time-sorted {@link ChartSeries} per ticker.
+     *
+     * The file is split into byte ranges on line boundaries and the ranges are parsed on the common fork-join
+     * pool straight into per-ticker primitive columns, which are then concatenated in file order. Only the
+     * columns are held on the heap; chunks are read through memory-mapped buffers. Rows must not contain
+     * quoted line breaks, which the chart export never produces, and the last row must end with a line break;
+     * a file without one is taken to be still being written.
+     */
+    static Map<String, ChartSeries> readSeries(String file) throws IOException, CsvException {
+        Path path = Path.of(file);
+        List<Map<String, ChartSeries.Builder>> chunks;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > 0 && !endsWithLineBreak(channel, size)) {
+                throw new IOException(file + " does not end with a line break; it may still be being written");
+            }
+            long chunkBytes = Math.min(MAX_CHUNK_BYTES,
+                    Math.max(MIN_CHUNK_BYTES, size / (ForkJoinPool.getCommonPoolParallelism() * 4L)));
+            int chunkCount = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+            chunks = IntStream.range(0, chunkCount)
+                    .parallel()
+                    .mapToObj(i -> readChunk(channel, i * chunkBytes, Math.min(size, (i + 1) * chunkBytes)))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Map<String, ChartSeries.Builder> builders = new HashMap<>();
+        for (Map<String, ChartSeries.Builder> chunk : chunks) {
+            chunk.forEach((ticker, part) -> builders.merge(ticker, part, ChartSeries.Builder::append));
+        }
+
+        Map<String, ChartSeries> series = new HashMap<>();
+        builders.forEach((ticker, builder) -> series.put(ticker, builder.build()));
+        return Map.copyOf(series);
+    }
+
+    /**
+     * Pushes every row to the sink in time order across tickers, ties in ticker order, and returns the number of
+     * rows. Used to replay the file as if it were a live feed.
+     */
+    public static int readTimeOrdered(String file, CandleSink sink) throws IOException, CsvException {
+        List<ChartSeries> series = new ArrayList<>(readSeries(file).values());
+        series.sort(Comparator.comparing(ChartSeries::getTicker));
+
+        // k-way merge: the queue holds series indexes, ordered by the timestamp at each one's cursor
+        int[] cursor = new int[series.size()];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(
+                Comparator.comparingLong((Integer s) -> series.get(s).timestampAt(cursor[s])).thenComparingInt(s -> s));
+        for (int s = 0; s < series.size(); s++) {
+            if (series.get(s).size() > 0) {
+                queue.add(s);
+            }
+        }
+
+        int rows = 0;
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            series.get(s).emit(cursor[s], sink);
+            rows++;
+            if (++cursor[s] < series.get(s).size()) {
+                queue.add(s);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Parses the lines that start in {@code [start, end)}; the first line of the file is the header.
+     */
+    static Map<String, ChartSeries.Builder> readChunk(FileChannel channel, long start, long end) {
+        Map<String, ChartSeries.Builder> builders = new HashMap<>();
+        CandleSink sink = (ticker, timestamp, open, high, low, close, volume) ->
+                builders.computeIfAbsent(ticker, ChartSeries.Builder::new).add(timestamp, open, high, low, close, volume);
+        CSVParser parser = new CSVParser();
+        try {
+            // Map one byte before the range to tell whether it begins on a line start, and enough after it to finish the last line
+            long mapStart = Math.max(0, start - 1);
+            long mapEnd = Math.min(channel.size(), end + MAX_LINE_BYTES);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+            int limit = (int) (end - mapStart);
+
+            // Skips the header in the first chunk, and the tail of a line owned by the previous chunk in the others
+            int pos = nextLine(buffer, 0);
+            byte[] line = new byte[256];
+            while (pos < limit && pos < buffer.limit()) {
+                int eol = indexOf(buffer, pos, (byte) '\n');
+                if (eol < 0) {
+                    if (mapEnd < channel.size()) {
+                        throw new IOException("Line at byte " + (mapStart + pos) + " is longer than " + MAX_LINE_BYTES + " bytes");
+                    }
+                    eol = buffer.limit();
+                }
+                int length = eol - pos;
+                if (length > 0 && buffer.get(eol - 1) == '\r') {
+                    length--;
+                }
+                if (line.length < length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(pos, line, 0, length);
+                accept(parser.parseLine(new String(line, 0, length, StandardCharsets.UTF_8)), sink);
+                pos = eol + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builders;
+    }
+
+    private static boolean endsWithLineBreak(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    private static int nextLine(MappedByteBuffer buffer, int from) {
+        int eol = indexOf(buffer, from, (byte) '\n');
+        return eol < 0 ? buffer.limit() : eol + 1;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, int from, byte value) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean accept(String[] row, CandleSink sink) throws IOException {
+        if (row.length == 1 && row[0].isBlank()) {
+            return false;
+        }
+        if (row.length < 10) {
+            throw malformed(row, row.length + " columns");
+        }
+        long timestamp;
+        long open;
+        long high;
+        long low;
+        long close;
+        long volume;
+        try {
+            timestamp = Candle.toEpochMillis(parseDateTime(row[2], row[3])); // 영업일자 + 체결시간
+            open = Candle.toFixed(parseBigDecimal(row[5])); // 시가
+            high = Candle.toFixed(parseBigDecimal(row[6])); // 고가
+            low = Candle.toFixed(parseBigDecimal(row[7])); // 저가
+            close = Candle.toFixed(parseBigDecimal(row[4])); // 현재가
+            volume = parseLong(row[8]); // 체결거래량
+        } catch (RuntimeException e) {
+            throw malformed(row, e.getMessage());
+        }
+        sink.accept(row[1], timestamp, open, high, low, close, volume); // 종목코드 (ticker)
+        return true;
+    }
+
+    private static IOException malformed(String[] row, String reason) {
+        return new IOException("Malformed chart row (" + reason + "): " + String.join(",", row));
+    }
+
+    private static LocalDateTime parseDateTime(String dateStr, String timeStr) {
+        // Parse date: YYYYMMDD format
+        LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("yyyyMMdd"));
+
+        // Parse time: HHMMSS format
+        int hour = Integer.parseInt(timeStr.substring(0, 2));
+        int minute = Integer.parseInt(timeStr.substring(2, 4));
+        int second = Integer.parseInt(timeStr.substring(4, 6));
+        LocalTime time = LocalTime.of(hour, minute, second);
+
+        return LocalDateTime.of(date, time);
+    }
+
+    private static BigDecimal parseBigDecimal(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        return new BigDecimal(value.replace(",", ""));
+    }
+
+    private static long parseLong(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return 0L;
+        }
+        return Long.parseLong(value.replace(",", ""));
+    }
+}
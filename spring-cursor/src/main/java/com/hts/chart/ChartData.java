@@ -9,7 +9,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chart_data")
+@Table(name = "chart_data", uniqueConstraints = {
+        // One row per ticker and minute; also serves range scans and the write-behind upserts
+        @UniqueConstraint(name = "uk_chart_data_ticker_timestamp", columnNames = {"ticker", "timestamp"})
+})
 @EntityListeners(AuditingEntityListener.class)
 public class ChartData {
 
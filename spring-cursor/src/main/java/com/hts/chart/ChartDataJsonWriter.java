@@ -0,0 +1,52 @@
+package com.hts.chart;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes candles straight to a {@link JsonGenerator} as a JSON array of {@link ChartDataResponse}-shaped
+ * objects, without building a response object per candle.
+ */
+final class ChartDataJsonWriter implements CandleSink {
+
+    private final JsonGenerator generator;
+
+    ChartDataJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    void writeStart() throws IOException {
+        generator.writeStartArray();
+    }
+
+    void writeEnd() throws IOException {
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    @Override
+    public void accept(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("ticker", ticker);
+            generator.writeStringField("timestamp",
+                    Candle.toLocalDateTime(timestamp).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            generator.writeFieldName("open");
+            generator.writeNumber(Candle.toDecimal(open));
+            generator.writeFieldName("high");
+            generator.writeNumber(Candle.toDecimal(high));
+            generator.writeFieldName("low");
+            generator.writeNumber(Candle.toDecimal(low));
+            generator.writeFieldName("close");
+            generator.writeNumber(Candle.toDecimal(close));
+            generator.writeNumberField("volume", volume);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            // Surface client disconnects to the caller, which unwraps and rethrows
+            throw new UncheckedIOException(e);
+        }
+    }
+}
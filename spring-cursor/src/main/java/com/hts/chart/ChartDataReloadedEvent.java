@@ -0,0 +1,26 @@
+package com.hts.chart;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+
+/**
+ * Published by a repository after it swapped in a reloaded snapshot of its chart data.
+ */
+public class ChartDataReloadedEvent extends ApplicationEvent {
+
+    private final Map<String, Long> changedFrom;
+
+    /**
+     * @param changedFrom per changed ticker, the earliest timestamp (local epoch millis) whose candle was
+     *                    added, revised or removed; unchanged tickers are absent
+     */
+    public ChartDataReloadedEvent(ChartRepository source, Map<String, Long> changedFrom) {
+        super(source);
+        this.changedFrom = changedFrom;
+    }
+
+    public Map<String, Long> getChangedFrom() {
+        return changedFrom;
+    }
+}
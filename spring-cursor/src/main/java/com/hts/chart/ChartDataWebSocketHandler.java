@@ -2,39 +2,160 @@ package com.hts.chart;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hts.stock.StockService;
+import com.hts.websocket.KoreaInvestmentWebSocketClient;
+import com.hts.websocket.TickConsumer;
+import com.hts.websocket.TickLatency;
+import com.hts.websocket.TradeTick;
 import com.hts.websocket.dto.FrontendWebSocketRequest;
 import com.hts.websocket.dto.FrontendWebSocketResponse;
+import com.hts.websocket.dto.RealTimeTradeData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Frontend WebSocket on {@code /ws/chart}: answers stock and chart requests and pushes live trades for the
+ * tickers each session subscribes to. Trades arrive on the tick pipeline's {@code frontend} stage thread.
+ * Messages are JSON text frames, or CBOR binary frames for sessions that negotiate {@code hts.cbor}.
+ */
 @Component
-public class ChartDataWebSocketHandler extends TextWebSocketHandler {
+public class ChartDataWebSocketHandler extends TextWebSocketHandler implements TickConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(ChartDataWebSocketHandler.class);
+
+    /** WebSocket subprotocols the handler speaks; the first one a client offers is used. */
+    public static final List<String> SUBPROTOCOLS = List.of(FrontendCodec.JSON_PROTOCOL, FrontendCodec.CBOR_PROTOCOL);
+
+    private static final int SNAPSHOT_MINUTES = 10;
     
-    private final CopyOnWriteArrayList<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+    // Session id → outbound side of the session
+    private final ConcurrentMap<String, FrontendSession> sessions = new ConcurrentHashMap<>();
+    private final TickerSubscriptions subscriptions;
+    private final ChartDeltas chartDeltas;
+    private final LiveCandleBuilder liveCandles;
     private final ObjectMapper objectMapper;
+    private final FrontendCodec codec;
     private final StockService stockService;
     private final ChartService chartService;
+    private final TickLatency latency;
+    private final boolean debugTimestamps;
+    private final FrontendSession.OverflowPolicy overflowPolicy;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+    private final Counter dropped;
+    private final Counter conflated;
 
-    public ChartDataWebSocketHandler(ObjectMapper objectMapper, StockService stockService, ChartService chartService) {
+    public ChartDataWebSocketHandler(ObjectMapper objectMapper, StockService stockService, ChartService chartService,
+                                     KoreaInvestmentWebSocketClient tradeFeed, LiveCandleBuilder liveCandles,
+                                     TickLatency latency, MeterRegistry meterRegistry,
+                                     @Value("${app.latency.debug-timestamps:false}") boolean debugTimestamps,
+                                     @Value("${app.frontend.send.overflow-policy:conflate}") String overflowPolicy,
+                                     @Value("${app.frontend.send.time-limit-ms:10000}") int sendTimeLimitMillis,
+                                     @Value("${app.frontend.send.buffer-size-limit:524288}") int bufferSizeLimit) {
         this.objectMapper = objectMapper;
+        this.codec = new FrontendCodec(objectMapper);
         this.stockService = stockService;
         this.chartService = chartService;
+        this.subscriptions = new TickerSubscriptions(tradeFeed);
+        this.chartDeltas = new ChartDeltas(ticker -> !subscriptions.subscribers(ticker).isEmpty());
+        liveCandles.addBarListener(chartDeltas);
+        this.liveCandles = liveCandles;
+        this.latency = latency;
+        this.debugTimestamps = debugTimestamps;
+        this.overflowPolicy = FrontendSession.OverflowPolicy.valueOf(overflowPolicy.toUpperCase());
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.bufferSizeLimit = bufferSizeLimit;
+
+        this.dropped = Counter.builder("frontend.send.dropped")
+                .description("Messages dropped because a session's send buffer was full")
+                .register(meterRegistry);
+        this.conflated = Counter.builder("frontend.send.conflated")
+                .description("Trades superseded by a newer trade of the same ticker before a slow session took them")
+                .register(meterRegistry);
+        Gauge.builder("frontend.sessions", sessions, Map::size)
+                .description("Open frontend WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("frontend.send.buffered", this, handler -> handler.bufferedBytes())
+                .description("Bytes queued across frontend sessions but not yet written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getStageName() {
+        return "frontend";
     }
 
     @Override
-    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.add(session);
+    public boolean acceptsReplay() {
+        // Replayed trades are history; clients get it from chart requests
+        return false;
+    }
+
+    @Override
+    public void onTick(TradeTick tick) {
+        Set<FrontendSession> subscribers = subscriptions.subscribers(tick.getTicker());
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        RealTimeTradeData trade = toTradeData(tick);
+        if (debugTimestamps) {
+            // Stamped once at encode, so the browser-side figure includes the fan-out to every subscriber
+            trade.setServerSentAt(System.currentTimeMillis());
+            if (tick.getReceivedNanos() != 0) {
+                trade.setServerLatencyMicros((System.nanoTime() - tick.getReceivedNanos()) / 1000);
+            }
+        }
+        FrontendCodec.Frame frame = codec.new Frame(FrontendWebSocketResponse.success(
+            FrontendWebSocketResponse.ResponseTypes.TRADE,
+            null,
+            trade
+        ));
+        for (FrontendSession session : subscribers) {
+            WebSocketMessage<?> message = frame.forSession(session);
+            if (message != null && session.sendTrade(tick.getTicker(), message)) {
+                latency.recordSent(tick);
+            }
+        }
+    }
+
+    private static RealTimeTradeData toTradeData(TradeTick tick) {
+        return new RealTimeTradeData(
+            tick.getTicker(),
+            String.format("%06d", tick.getTradeTime()),
+            Candle.toDecimal(tick.getPrice()),
+            Candle.toDecimal(tick.getOpen()),
+            Candle.toDecimal(tick.getHigh()),
+            Candle.toDecimal(tick.getLow()),
+            tick.getVolume(),
+            tick.getCumulativeValue(),
+            String.valueOf(tick.getBusinessDate())
+        );
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession webSocketSession) throws Exception {
+        FrontendSession session = new FrontendSession(webSocketSession, overflowPolicy, sendTimeLimitMillis,
+                bufferSizeLimit, dropped, conflated);
+        sessions.put(session.getId(), session);
         logger.info("WebSocket connection established. Total connections: {}", sessions.size());
         
         // Send welcome message
@@ -45,24 +166,41 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
         );
         sendMessage(session, welcomeResponse);
         
-        super.afterConnectionEstablished(session);
+        super.afterConnectionEstablished(webSocketSession);
     }
 
     @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        sessions.remove(session);
+    public void afterConnectionClosed(WebSocketSession webSocketSession, CloseStatus status) throws Exception {
+        FrontendSession session = sessions.remove(webSocketSession.getId());
+        if (session != null) {
+            subscriptions.removeSession(session);
+        }
         logger.info("WebSocket connection closed. Total connections: {}", sessions.size());
-        super.afterConnectionClosed(session, status);
+        super.afterConnectionClosed(webSocketSession, status);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession webSocketSession, TextMessage message) throws Exception {
+        logger.debug("Received message from client: {}", message.getPayload());
+        handleRequest(webSocketSession, message);
     }
 
     @Override
-    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+    protected void handleBinaryMessage(WebSocketSession webSocketSession, BinaryMessage message) {
+        // CBOR requests from clients on the binary subprotocol
+        handleRequest(webSocketSession, message);
+    }
+
+    private void handleRequest(WebSocketSession webSocketSession, WebSocketMessage<?> message) {
+        FrontendSession session = sessions.get(webSocketSession.getId());
+        if (session == null) {
+            return;
+        }
         try {
-            String payload = message.getPayload();
-            logger.debug("Received message from client: {}", payload);
-            
             // Parse the incoming request
-            FrontendWebSocketRequest request = objectMapper.readValue(payload, FrontendWebSocketRequest.class);
+            FrontendWebSocketRequest request = message instanceof BinaryMessage binary
+                ? codec.decode(binary)
+                : codec.decode((TextMessage) message);
             
             // Process the request based on its type
             FrontendWebSocketResponse response = processRequest(request, session);
@@ -83,7 +221,7 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private FrontendWebSocketResponse processRequest(FrontendWebSocketRequest request, WebSocketSession session) {
+    private FrontendWebSocketResponse processRequest(FrontendWebSocketRequest request, FrontendSession session) {
         String requestId = request.getRequestId();
         String type = request.getType();
         
@@ -101,6 +239,9 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
                 case FrontendWebSocketRequest.RequestTypes.UNSUBSCRIBE_FROM_TICKER:
                     return handleUnsubscribeFromTicker(request, requestId, session);
                     
+                case FrontendWebSocketRequest.RequestTypes.RESYNC_CHART:
+                    return handleResyncChart(request, requestId);
+                    
                 case FrontendWebSocketRequest.RequestTypes.PING:
                     return FrontendWebSocketResponse.pong(requestId);
                     
@@ -190,7 +331,7 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private FrontendWebSocketResponse handleSubscribeToTicker(FrontendWebSocketRequest request, String requestId, WebSocketSession session) {
+    private FrontendWebSocketResponse handleSubscribeToTicker(FrontendWebSocketRequest request, String requestId, FrontendSession session) {
         try {
             FrontendWebSocketRequest.StockDataRequest subscribeRequest = objectMapper.convertValue(
                 request.getPayload(), 
@@ -205,15 +346,23 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
                 );
             }
             
-            // Here you would implement the subscription logic
-            // For now, we'll just return a success response
-            logger.info("Client {} subscribed to ticker: {}", session.getId(), subscribeRequest.getTicker());
+            String ticker = subscribeRequest.getTicker();
+            if (subscriptions.add(session, ticker) == TickerSubscriptions.Added.UNAVAILABLE) {
+                return FrontendWebSocketResponse.error(
+                    FrontendWebSocketResponse.ResponseTypes.ERROR,
+                    requestId,
+                    "Real-time feed is not available for " + ticker
+                );
+            }
+            logger.info("Client {} subscribed to ticker: {}", session.getId(), ticker);
             
-            return FrontendWebSocketResponse.success(
+            sendMessage(session, FrontendWebSocketResponse.success(
                 FrontendWebSocketResponse.ResponseTypes.SUBSCRIPTION_CONFIRMED,
                 requestId,
                 "Successfully subscribed to " + subscribeRequest.getTicker()
-            );
+            ));
+            // The subscriber starts from a snapshot; CHART_UPDATE deltas follow
+            return chartSnapshot(ticker, requestId);
             
         } catch (Exception e) {
             return FrontendWebSocketResponse.error(
@@ -224,7 +373,50 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private FrontendWebSocketResponse handleUnsubscribeFromTicker(FrontendWebSocketRequest request, String requestId, WebSocketSession session) {
+    private FrontendWebSocketResponse handleResyncChart(FrontendWebSocketRequest request, String requestId) {
+        try {
+            FrontendWebSocketRequest.StockDataRequest resyncRequest = objectMapper.convertValue(
+                request.getPayload(), 
+                FrontendWebSocketRequest.StockDataRequest.class
+            );
+            
+            if (resyncRequest.getTicker() == null || resyncRequest.getTicker().trim().isEmpty()) {
+                return FrontendWebSocketResponse.error(
+                    FrontendWebSocketResponse.ResponseTypes.ERROR,
+                    requestId,
+                    "Ticker is required for resync"
+                );
+            }
+            
+            return chartSnapshot(resyncRequest.getTicker(), requestId);
+            
+        } catch (Exception e) {
+            return FrontendWebSocketResponse.error(
+                FrontendWebSocketResponse.ResponseTypes.ERROR,
+                requestId,
+                "Failed to resync chart: " + e.getMessage()
+            );
+        }
+    }
+
+    /**
+     * The last {@value #SNAPSHOT_MINUTES} minutes of 1m candles, tagged with the sequence number of the last
+     * update they reflect and whether the live feed was unbroken over them.
+     */
+    private FrontendWebSocketResponse chartSnapshot(String ticker, String requestId) {
+        // Read the sequence first: every update up to it is already in the live candles the query reads
+        long sequence = chartDeltas.sequence(ticker);
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusMinutes(SNAPSHOT_MINUTES);
+        List<ChartDataResponse> candles = chartService.getChartData(ticker, from, to, ChartInterval.ONE_MINUTE);
+        return FrontendWebSocketResponse.success(
+            FrontendWebSocketResponse.ResponseTypes.CHART_SNAPSHOT,
+            requestId,
+            new ChartSnapshot(ticker, sequence, liveCandles.isComplete(ticker, from, to), candles)
+        );
+    }
+
+    private FrontendWebSocketResponse handleUnsubscribeFromTicker(FrontendWebSocketRequest request, String requestId, FrontendSession session) {
         try {
             FrontendWebSocketRequest.StockDataRequest unsubscribeRequest = objectMapper.convertValue(
                 request.getPayload(), 
@@ -239,7 +431,7 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
                 );
             }
             
-            // Here you would implement the unsubscription logic
+            subscriptions.remove(session, unsubscribeRequest.getTicker());
             logger.info("Client {} unsubscribed from ticker: {}", session.getId(), unsubscribeRequest.getTicker());
             
             return FrontendWebSocketResponse.success(
@@ -257,25 +449,62 @@ public class ChartDataWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private void sendMessage(WebSocketSession session, FrontendWebSocketResponse response) {
-        try {
-            String jsonResponse = objectMapper.writeValueAsString(response);
-            session.sendMessage(new TextMessage(jsonResponse));
-        } catch (IOException e) {
-            logger.error("Failed to send message to client", e);
+    private void sendMessage(FrontendSession session, FrontendWebSocketResponse response) {
+        WebSocketMessage<?> message = codec.encode(response, session.isBinary());
+        if (message != null) {
+            session.send(message);
         }
     }
 
-    public void broadcast(String message) {
-        FrontendWebSocketResponse broadcastResponse = FrontendWebSocketResponse.success(
-            "BROADCAST",
-            null,
-            message
-        );
-        
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen()) {
-                sendMessage(session, broadcastResponse);
+    /**
+     * Pushes the 1m bars that changed since the last call to each ticker's subscribers as one numbered
+     * {@code CHART_UPDATE} per ticker.
+     */
+    public void pushChartUpdates() {
+        for (String ticker : chartDeltas.pendingTickers()) {
+            ChartUpdate update = chartDeltas.drain(ticker);
+            if (update != null) {
+                publish(ticker, FrontendWebSocketResponse.ResponseTypes.CHART_UPDATE, update);
+            }
+        }
+    }
+
+    /**
+     * Hands trades held back for slow sessions to their send buffers once there is room.
+     */
+    @Scheduled(fixedDelayString = "${app.frontend.send.conflation-flush-ms:50}")
+    public void flushHeldTrades() {
+        for (FrontendSession session : sessions.values()) {
+            session.flushHeldTrades();
+        }
+    }
+
+    Collection<FrontendSession> getSessions() {
+        return sessions.values();
+    }
+
+    private long bufferedBytes() {
+        long total = 0;
+        for (FrontendSession session : sessions.values()) {
+            total += session.getBufferedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Sends {@code data} as a {@code type} message to the sessions subscribed to the ticker. The message is
+     * serialized once per encoding and the same frame goes to every session using it.
+     */
+    public void publish(String ticker, String type, Object data) {
+        Set<FrontendSession> subscribers = subscriptions.subscribers(ticker);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        FrontendCodec.Frame frame = codec.new Frame(FrontendWebSocketResponse.success(type, null, data));
+        for (FrontendSession session : subscribers) {
+            WebSocketMessage<?> message = frame.forSession(session);
+            if (message != null) {
+                session.send(message);
             }
         }
     }
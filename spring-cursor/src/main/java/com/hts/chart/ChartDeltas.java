@@ -0,0 +1,110 @@
+package com.hts.chart;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Collects the live 1m bars that changed since the last push, per ticker, and numbers each push.
+ *
+ * Bars arrive from the live candle builder's stage thread; a bar revised several times between pushes is sent
+ * once with its latest values. Every non-empty {@link #drain} takes the ticker's next sequence number, so a
+ * client that sees a number skipped knows it missed an update and should ask for a snapshot again.
+ */
+final class ChartDeltas implements CandleSink {
+
+    private final Predicate<String> watched;
+    private final ConcurrentMap<String, TickerBars> byTicker = new ConcurrentHashMap<>();
+
+    /**
+     * @param watched whether anyone is subscribed to a ticker; bars of other tickers are not collected
+     */
+    ChartDeltas(Predicate<String> watched) {
+        this.watched = watched;
+    }
+
+    @Override
+    public void accept(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        if (!watched.test(ticker)) {
+            return;
+        }
+        TickerBars bars = byTicker.computeIfAbsent(ticker, key -> new TickerBars());
+        synchronized (bars) {
+            long[] bar = bars.changed.computeIfAbsent(timestamp, key -> new long[5]);
+            bar[0] = open;
+            bar[1] = high;
+            bar[2] = low;
+            bar[3] = close;
+            bar[4] = volume;
+        }
+    }
+
+    /** Tickers with changes not yet drained. */
+    List<String> pendingTickers() {
+        List<String> tickers = new ArrayList<>();
+        byTicker.forEach((ticker, bars) -> {
+            if (bars.hasChanges()) {
+                tickers.add(ticker);
+            }
+        });
+        return tickers;
+    }
+
+    /**
+     * Takes the ticker's changed bars in time order under its next sequence number, or {@code null} if nothing
+     * changed. Tickers nobody watches any more are forgotten.
+     */
+    ChartUpdate drain(String ticker) {
+        TickerBars bars = byTicker.get(ticker);
+        if (bars == null) {
+            return null;
+        }
+        if (!watched.test(ticker)) {
+            byTicker.remove(ticker);
+            return null;
+        }
+        List<ChartDataResponse> candles;
+        long sequence;
+        synchronized (bars) {
+            if (bars.changed.isEmpty()) {
+                return null;
+            }
+            candles = new ArrayList<>(bars.changed.size());
+            for (Map.Entry<Long, long[]> entry : bars.changed.entrySet()) {
+                long[] bar = entry.getValue();
+                candles.add(new ChartDataResponse(ticker, Candle.toLocalDateTime(entry.getKey()),
+                        Candle.toDecimal(bar[0]), Candle.toDecimal(bar[1]), Candle.toDecimal(bar[2]),
+                        Candle.toDecimal(bar[3]), bar[4]));
+            }
+            bars.changed.clear();
+            sequence = ++bars.sequence;
+        }
+        return new ChartUpdate(ticker, sequence, candles);
+    }
+
+    /**
+     * The sequence number of the ticker's last push. A snapshot taken now is current as of this number; the
+     * next update carries the one after it.
+     */
+    long sequence(String ticker) {
+        TickerBars bars = byTicker.computeIfAbsent(ticker, key -> new TickerBars());
+        synchronized (bars) {
+            return bars.sequence;
+        }
+    }
+
+    private static final class TickerBars {
+
+        // Bar start → open, high, low, close, volume
+        final TreeMap<Long, long[]> changed = new TreeMap<>();
+        long sequence;
+
+        synchronized boolean hasChanges() {
+            return !changed.isEmpty();
+        }
+    }
+}
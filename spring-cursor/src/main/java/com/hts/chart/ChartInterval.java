@@ -1,27 +1,50 @@
 package com.hts.chart;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public enum ChartInterval {
-    ONE_MINUTE("1m"),
-    FIVE_MINUTES("5m"),
-    TEN_MINUTES("10m");
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5)),
+    TEN_MINUTES("10m", TimeUnit.MINUTES.toMillis(10)),
+    THIRTY_MINUTES("30m", TimeUnit.MINUTES.toMillis(30)),
+    ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1)),
+    ONE_DAY("1d", TimeUnit.DAYS.toMillis(1));
 
     private final String value;
+    private final long millis;
     private static final Map<String, ChartInterval> LOOKUP = Arrays.stream(values())
             .collect(Collectors.toMap(ChartInterval::getValue, Function.identity()));
 
-    ChartInterval(String value) {
+    ChartInterval(String value, long millis) {
         this.value = value;
+        this.millis = millis;
     }
 
     public String getValue() {
         return value;
     }
 
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Start of the bucket containing the given local epoch millis. Buckets are aligned to the epoch, which
+     * puts them on whole local minutes, hours and days.
+     */
+    public long bucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime dateTime) {
+        return Candle.toLocalDateTime(bucketStart(Candle.toEpochMillis(dateTime)));
+    }
+
     public static ChartInterval fromString(String value) {
         return LOOKUP.get(value);
     }
@@ -35,4 +58,4 @@ public enum ChartInterval {
                 .map(ChartInterval::getValue)
                 .toArray(String[]::new);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,187 @@
+package com.hts.chart;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of chart query results in fixed blocks of {@value #BUCKETS_PER_BLOCK} buckets per ticker and
+ * interval (a day of 1m bars, five days of 5m bars, and so on), aligned to the epoch like the buckets.
+ *
+ * A request is split at the start of the open bucket (the one containing now). Its closed part is assembled
+ * from the blocks it overlaps, so rolling "last N" windows keep hitting the same entries as they move; the open
+ * part is always loaded fresh, so live bars never make a cached entry stale. The block holding the open bucket
+ * is cached up to where the closed buckets end and extended on later requests by loading only what closed
+ * since. Eviction is by total cached candle count, and hit/miss/eviction counts are published as the
+ * {@code cache.*} meters tagged {@code cache=chartQuery}. Cached keys are also indexed by ticker, so
+ * invalidating one ticker only looks at that ticker's blocks.
+ */
+@Component
+public class ChartQueryCache {
+
+    static final int BUCKETS_PER_BLOCK = 1440;
+
+    /**
+     * Loads candles for a bucket-aligned range; {@code to} is inclusive.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        List<Candle> load(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval);
+    }
+
+    private final Cache<Key, Block> cache;
+    private final ConcurrentMap<String, Set<Key>> keysByTicker = new ConcurrentHashMap<>();
+
+    public ChartQueryCache(@Value("${app.chart.cache.max-candles:2000000}") long maxCandles,
+                           MeterRegistry meterRegistry) {
+        Cache<Key, Block> built = Caffeine.newBuilder()
+                .maximumWeight(maxCandles)
+                .weigher((Key key, Block block) -> block.candles().size() + 1)
+                // Runs inside the eviction, so it cannot race a reload of the same key
+                .evictionListener((Key key, Block block, RemovalCause cause) -> unindex(key))
+                .recordStats()
+                .build();
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, built, "chartQuery");
+    }
+
+    /**
+     * Returns the candles of every bucket overlapping {@code [from, to]}, serving closed buckets from the cache.
+     */
+    public List<Candle> get(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, Loader loader) {
+        return get(ticker, from, to, interval, loader, Candle.toEpochMillis(LocalDateTime.now()));
+    }
+
+    /** As {@link #get(String, LocalDateTime, LocalDateTime, ChartInterval, Loader)} at the given local time. */
+    List<Candle> get(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, Loader loader,
+                     long now) {
+        ChartInterval target = interval != null ? interval : ChartInterval.ONE_MINUTE;
+        long start = target.bucketStart(Candle.toEpochMillis(from));
+        long end = target.bucketStart(Candle.toEpochMillis(to)) + target.getMillis();
+        long closedEnd = Math.min(end, target.bucketStart(now));
+        if (end <= start) {
+            return List.of();
+        }
+
+        List<Candle> result = new ArrayList<>();
+        long blockMillis = target.getMillis() * BUCKETS_PER_BLOCK;
+        for (long blockStart = Math.floorDiv(start, blockMillis) * blockMillis; blockStart < closedEnd;
+             blockStart += blockMillis) {
+            long cachedEnd = Math.min(blockStart + blockMillis, target.bucketStart(now));
+            Block block = block(new Key(ticker, target, blockStart), cachedEnd, loader);
+            block.copyRange(Math.max(start, blockStart), Math.min(closedEnd, cachedEnd), result);
+        }
+        if (closedEnd < end) {
+            result.addAll(load(ticker, Math.max(start, closedEnd), end, target, loader));
+        }
+        return result;
+    }
+
+    /**
+     * Drops every cached bucket of the ticker from the one containing {@code timestamp} on, for bars that land
+     * in an already closed bucket (late or revised bars, reloaded files). Blocks that end before it are kept.
+     */
+    public void invalidateFrom(String ticker, long timestamp) {
+        // Cached buckets end at or before the open bucket of their interval, which never starts after the current minute
+        if (timestamp >= ChartInterval.ONE_MINUTE.bucketStart(Candle.toEpochMillis(LocalDateTime.now()))) {
+            return;
+        }
+        Set<Key> keys = keysByTicker.get(ticker);
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            long cut = key.interval().bucketStart(timestamp);
+            cache.asMap().computeIfPresent(key, (k, block) -> {
+                if (block.end() <= cut) {
+                    return block;
+                }
+                if (cut <= k.start()) {
+                    keys.remove(k);
+                    return null;
+                }
+                return block.truncate(cut);
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        keysByTicker.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * The block cached up to at least {@code end}, loading it or the part that closed since it was cached.
+     * Computed under the key's lock, so an invalidation of the same block waits for it.
+     */
+    private Block block(Key key, long end, Loader loader) {
+        // The plain lookup is what the hit and miss counts record
+        Block present = cache.getIfPresent(key);
+        if (present != null && present.end() >= end) {
+            return present;
+        }
+        return cache.asMap().compute(key, (k, cached) -> {
+            if (cached == null) {
+                keysByTicker.computeIfAbsent(k.ticker(), t -> ConcurrentHashMap.newKeySet()).add(k);
+                return new Block(end, load(k.ticker(), k.start(), end, k.interval(), loader));
+            }
+            if (cached.end() >= end) {
+                return cached;
+            }
+            List<Candle> candles = new ArrayList<>(cached.candles());
+            candles.addAll(load(k.ticker(), cached.end(), end, k.interval(), loader));
+            return new Block(end, List.copyOf(candles));
+        });
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = keysByTicker.get(key.ticker());
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    private static List<Candle> load(String ticker, long start, long end, ChartInterval interval, Loader loader) {
+        return List.copyOf(loader.load(ticker, Candle.toLocalDateTime(start), Candle.toLocalDateTime(end - 1), interval));
+    }
+
+    /** One block, identified by its first bucket. */
+    private record Key(String ticker, ChartInterval interval, long start) {
+    }
+
+    /** The block's candles in time order, complete from its start up to {@code end}, exclusive. */
+    private record Block(long end, List<Candle> candles) {
+
+        Block truncate(long cut) {
+            return new Block(cut, List.copyOf(candles.subList(0, lowerBound(cut))));
+        }
+
+        void copyRange(long from, long to, List<Candle> result) {
+            result.addAll(candles.subList(lowerBound(from), lowerBound(to)));
+        }
+
+        private int lowerBound(long timestamp) {
+            int lo = 0;
+            int hi = candles.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (candles.get(mid).getTimestamp() < timestamp) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -1,9 +1,58 @@
 package com.hts.chart;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface ChartRepository {
+
+    /**
+     * Returns candles between {@code from} and {@code to} rolled up to the requested interval, with each candle
+     * stamped at the start of its bucket.
+     */
     List<ChartData> findChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval);
     List<ChartData> findByTicker(String ticker);
+
+    /**
+     * Pushes the same candles as {@link #findChartData} to the sink as they are produced. Sources that can
+     * iterate without materializing the result override this; the default falls back to {@link #findChartData}.
+     */
+    default void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        for (ChartData row : findChartData(ticker, from, to, interval)) {
+            sink.accept(
+                    row.getTicker(),
+                    Candle.toEpochMillis(row.getTimestamp()),
+                    Candle.toFixed(row.getOpen()),
+                    Candle.toFixed(row.getHigh()),
+                    Candle.toFixed(row.getLow()),
+                    Candle.toFixed(row.getClose()),
+                    row.getVolume() != null ? row.getVolume() : 0L
+            );
+        }
+    }
+
+    /**
+     * Returns the same candles as {@link #findChartData} in the compact {@link Candle} form.
+     */
+    default List<Candle> findCandles(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
+        List<Candle> result = new ArrayList<>();
+        streamChartData(ticker, from, to, interval, Candle.collectInto(result));
+        return result;
+    }
+
+    /**
+     * Pushes every 1m bar held in memory to the sink, returning {@code false} for sources that are not kept in
+     * memory and therefore cannot be replayed cheaply.
+     */
+    default boolean replayTo(CandleSink sink) {
+        return false;
+    }
+
+    /**
+     * Whether this repository published the event. Compared here rather than by the caller because the
+     * injected bean may be a proxy around the publishing instance.
+     */
+    default boolean isSourceOf(ChartDataReloadedEvent event) {
+        return event.getSource() == this;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.hts.chart;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pre-aggregated 1m → 5m → 10m → 1h → 1d candles per ticker, kept up to date as 1m bars arrive.
+ *
+ * A 1m bar replaces any earlier version of the same minute, and every coarser bucket it falls into is then
+ * recomputed from the next finer tier. Revised open bars and late arrivals are therefore handled without
+ * double counting, and each update touches a bounded number of candles.
+ *
+ * Each tier keeps about {@code app.chart.rollup.max-candles-per-tier} candles per ticker. Older ones are trimmed
+ * a whole day at a time, so every coarser bucket is either built from complete finer data or gone; ranges that
+ * start before a tier's trimmed edge are not {@link #covers covered} and fall back to the repository.
+ */
+@Component
+public class ChartRollupStore implements CandleSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartRollupStore.class);
+
+    private static final int STREAM_CHUNK_SIZE = 512;
+
+    static final ChartInterval[] TIERS = {
+            ChartInterval.ONE_MINUTE,
+            ChartInterval.FIVE_MINUTES,
+            ChartInterval.TEN_MINUTES,
+            ChartInterval.ONE_HOUR,
+            ChartInterval.ONE_DAY
+    };
+
+    private final ConcurrentMap<String, TickerTiers> tiersByTicker = new ConcurrentHashMap<>();
+    private final int maxCandlesPerTier;
+
+    public ChartRollupStore(@Value("${app.chart.rollup.max-candles-per-tier:50000}") int maxCandlesPerTier) {
+        if (maxCandlesPerTier <= 0) {
+            throw new IllegalArgumentException("app.chart.rollup.max-candles-per-tier must be positive");
+        }
+        this.maxCandlesPerTier = maxCandlesPerTier;
+    }
+
+    /**
+     * Seeds the tiers with every bar the repository holds in memory, keeping the retained tail. Seeded tickers
+     * are complete back to their trimmed edge; tickers fed only by {@link #accept} are complete from their first
+     * bar.
+     */
+    public void load(ChartRepository repository) {
+        Set<String> tickers = new HashSet<>();
+        boolean replayed = repository.replayTo((ticker, timestamp, open, high, low, close, volume) -> {
+            accept(ticker, timestamp, open, high, low, close, volume);
+            tickers.add(ticker);
+        });
+
+        if (replayed) {
+            tickers.forEach(ticker -> tiersByTicker.get(ticker).markComplete());
+            logger.info("Seeded chart rollup tiers for {} tickers", tickers.size());
+        }
+    }
+
+    /**
+     * Rebuilds the changed tickers of a reloaded repository: each one's tiers are cut back to where its data
+     * changed and refilled from the repository. A ticker whose change reaches past its retained tail, or
+     * that the repository no longer has, is dropped and reseeded whole. Live bars after the cut are lost
+     * until they are revised again.
+     *
+     * @param changedFrom per changed ticker, the earliest local epoch millis whose candle changed
+     */
+    public void reload(ChartRepository repository, Map<String, Long> changedFrom) {
+        Set<String> reseeded = new HashSet<>();
+        changedFrom.forEach((ticker, from) -> {
+            TickerTiers tiers = tiersByTicker.get(ticker);
+            if (tiers == null || from == Long.MIN_VALUE
+                    || !tiers.truncateFrom(ChartInterval.ONE_MINUTE.bucketStart(from))) {
+                tiersByTicker.remove(ticker);
+                reseeded.add(ticker);
+            }
+        });
+
+        repository.replayTo((ticker, timestamp, open, high, low, close, volume) -> {
+            Long from = changedFrom.get(ticker);
+            if (from != null && (timestamp >= from || reseeded.contains(ticker))) {
+                accept(ticker, timestamp, open, high, low, close, volume);
+            }
+        });
+        reseeded.forEach(ticker -> {
+            TickerTiers tiers = tiersByTicker.get(ticker);
+            if (tiers != null) {
+                tiers.markComplete();
+            }
+        });
+    }
+
+    /**
+     * Applies a new or revised 1m bar.
+     */
+    @Override
+    public void accept(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        long minute = ChartInterval.ONE_MINUTE.bucketStart(timestamp);
+        tiersByTicker.computeIfAbsent(ticker, key -> new TickerTiers(minute, maxCandlesPerTier))
+                .update(minute, open, high, low, close, volume);
+    }
+
+    /**
+     * Whether the tiers hold every candle of the given interval from {@code from} on.
+     */
+    public boolean covers(String ticker, LocalDateTime from, ChartInterval interval) {
+        TickerTiers tiers = tiersByTicker.get(ticker);
+        if (tiers == null) {
+            return false;
+        }
+        ChartInterval target = interval != null ? interval : ChartInterval.ONE_MINUTE;
+        return tiers.covers(tierFor(target), target.bucketStart(Candle.toEpochMillis(from)));
+    }
+
+    /**
+     * Answers from the coarsest tier whose width divides the requested interval, rolling it up further only
+     * when the interval has no tier of its own.
+     */
+    public List<Candle> findCandles(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
+        List<Candle> result = new ArrayList<>();
+        streamChartData(ticker, from, to, interval, Candle.collectInto(result));
+        return result;
+    }
+
+    /**
+     * Streams the same candles as {@link #findCandles} to the sink. Candles are copied out in fixed-size chunks,
+     * so the ticker's lock is never held while the sink runs and memory stays constant for any range.
+     */
+    public void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        TickerTiers tiers = tiersByTicker.get(ticker);
+        if (tiers == null) {
+            return;
+        }
+
+        ChartInterval target = interval != null ? interval : ChartInterval.ONE_MINUTE;
+        int tier = tierFor(target);
+        long cursor = target.bucketStart(Candle.toEpochMillis(from));
+        long end = Candle.toEpochMillis(to);
+
+        ChartAggregator aggregator = TIERS[tier] == target ? null : new ChartAggregator(target, sink);
+        CandleSink downstream = aggregator != null ? aggregator : sink;
+        CandleBuffer buffer = new CandleBuffer(STREAM_CHUNK_SIZE);
+        while (true) {
+            tiers.fill(tier, cursor, end, buffer);
+            boolean more = buffer.isFull();
+            if (more) {
+                cursor = buffer.lastTimestamp() + 1;
+            }
+            buffer.drainTo(ticker, downstream);
+            if (!more) {
+                break;
+            }
+        }
+        if (aggregator != null) {
+            aggregator.finish();
+        }
+    }
+
+    private static int tierFor(ChartInterval interval) {
+        for (int i = TIERS.length - 1; i > 0; i--) {
+            if (interval.getMillis() % TIERS[i].getMillis() == 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static final class TickerTiers {
+
+        private final RollupTier[] tiers = new RollupTier[TIERS.length];
+        private final int maxCandles;
+        private volatile long completeFrom;
+
+        TickerTiers(long completeFrom, int maxCandles) {
+            this.completeFrom = completeFrom;
+            this.maxCandles = maxCandles;
+            for (int i = 0; i < TIERS.length; i++) {
+                tiers[i] = new RollupTier(TIERS[i]);
+            }
+        }
+
+        synchronized void update(long minute, long open, long high, long low, long close, long volume) {
+            tiers[0].upsert(minute, open, high, low, close, volume);
+            for (int i = 1; i < tiers.length; i++) {
+                tiers[i - 1].rollInto(tiers[i], minute);
+            }
+            for (RollupTier tier : tiers) {
+                trim(tier);
+            }
+        }
+
+        /**
+         * Cuts at the start of the day holding the oldest candle to keep. A finer tier holds at least as many
+         * candles per day as a coarser one, so floors never rise from finer to coarser tiers.
+         */
+        private void trim(RollupTier tier) {
+            if (tier.size() > maxCandles) {
+                tier.trimBefore(ChartInterval.ONE_DAY.bucketStart(tier.timestampAt(tier.size() - maxCandles)));
+            }
+        }
+
+        synchronized void fill(int tier, long from, long to, CandleBuffer buffer) {
+            tiers[tier].fill(from, to, buffer);
+        }
+
+        /**
+         * Drops every candle from {@code minute} on and rebuilds the coarser buckets that straddle it. Returns
+         * {@code false}, changing nothing, when the minute lies before the retained 1m candles.
+         */
+        synchronized boolean truncateFrom(long minute) {
+            if (minute <= tiers[0].floor()) {
+                return false;
+            }
+            tiers[0].truncateFrom(minute);
+            for (int i = 1; i < tiers.length; i++) {
+                tiers[i].truncateFrom(tiers[i].getInterval().bucketStart(minute));
+                tiers[i - 1].rollInto(tiers[i], minute);
+            }
+            return true;
+        }
+
+        synchronized boolean covers(int tier, long from) {
+            return from >= completeFrom && from >= tiers[tier].floor();
+        }
+
+        void markComplete() {
+            completeFrom = Long.MIN_VALUE;
+        }
+    }
+}
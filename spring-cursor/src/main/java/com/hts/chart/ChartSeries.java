@@ -0,0 +1,241 @@
+package com.hts.chart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Time-sorted, column-oriented candles for a single ticker, using the {@link Candle} encoding.
+ */
+final class ChartSeries {
+
+    private final String ticker;
+    private final long[] timestamps;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+
+    private ChartSeries(String ticker, long[] timestamps, long[] open, long[] high,
+                        long[] low, long[] close, long[] volume) {
+        this.ticker = ticker;
+        this.timestamps = timestamps;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    String getTicker() {
+        return ticker;
+    }
+
+    int size() {
+        return timestamps.length;
+    }
+
+    long timestampAt(int i) {
+        return timestamps[i];
+    }
+
+    void emit(int i, CandleSink sink) {
+        sink.accept(ticker, timestamps[i], open[i], high[i], low[i], close[i], volume[i]);
+    }
+
+    /**
+     * Returns the candles with {@code from <= timestamp <= to}, located with two binary searches.
+     */
+    List<ChartData> slice(long from, long to) {
+        int start = lowerBound(from);
+        int end = upperBound(to);
+        List<ChartData> result = new ArrayList<>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+            result.add(toChartData(i));
+        }
+        return result;
+    }
+
+    /**
+     * Pushes the candles with {@code from <= timestamp <= to} to the sink in time order.
+     */
+    void forEach(long from, long to, CandleSink sink) {
+        int end = upperBound(to);
+        for (int i = lowerBound(from); i < end; i++) {
+            sink.accept(ticker, timestamps[i], open[i], high[i], low[i], close[i], volume[i]);
+        }
+    }
+
+    List<ChartData> all() {
+        return slice(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Timestamp of the earliest candle that differs from {@code other} or exists in only one of the two,
+     * or {@link Long#MAX_VALUE} when both hold identical candles.
+     */
+    long firstDifference(ChartSeries other) {
+        int common = Math.min(size(), other.size());
+        for (int i = 0; i < common; i++) {
+            if (timestamps[i] != other.timestamps[i]
+                    || open[i] != other.open[i]
+                    || high[i] != other.high[i]
+                    || low[i] != other.low[i]
+                    || close[i] != other.close[i]
+                    || volume[i] != other.volume[i]) {
+                return Math.min(timestamps[i], other.timestamps[i]);
+            }
+        }
+        if (size() > common) {
+            return timestamps[common];
+        }
+        return other.size() > common ? other.timestamps[common] : Long.MAX_VALUE;
+    }
+
+    /** Index of the first candle with {@code timestamp >= key}. */
+    int lowerBound(long key) {
+        int lo = 0;
+        int hi = timestamps.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Index of the first candle with {@code timestamp > key}. */
+    int upperBound(long key) {
+        int lo = 0;
+        int hi = timestamps.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private ChartData toChartData(int i) {
+        return new ChartData(
+                ticker,
+                Candle.toLocalDateTime(timestamps[i]),
+                Candle.toDecimal(open[i]),
+                Candle.toDecimal(high[i]),
+                Candle.toDecimal(low[i]),
+                Candle.toDecimal(close[i]),
+                volume[i]
+        );
+    }
+
+    /**
+     * Accumulates rows in arrival order and produces an immutable, time-sorted {@link ChartSeries}.
+     */
+    static final class Builder {
+
+        private final String ticker;
+        private long[] timestamps = new long[256];
+        private long[] open = new long[256];
+        private long[] high = new long[256];
+        private long[] low = new long[256];
+        private long[] close = new long[256];
+        private long[] volume = new long[256];
+        private int size;
+        private boolean sorted = true;
+
+        Builder(String ticker) {
+            this.ticker = ticker;
+        }
+
+        Builder add(long timestamp, long o, long h, long l, long c, long v) {
+            if (size == timestamps.length) {
+                ensureCapacity(size + 1);
+            }
+            if (size > 0 && timestamp < timestamps[size - 1]) {
+                sorted = false;
+            }
+            timestamps[size] = timestamp;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+            return this;
+        }
+
+        /**
+         * Appends the rows of {@code other} after this builder's rows.
+         */
+        Builder append(Builder other) {
+            ensureCapacity(size + other.size);
+            if (other.size > 0 && (!other.sorted || (size > 0 && other.timestamps[0] < timestamps[size - 1]))) {
+                sorted = false;
+            }
+            System.arraycopy(other.timestamps, 0, timestamps, size, other.size);
+            System.arraycopy(other.open, 0, open, size, other.size);
+            System.arraycopy(other.high, 0, high, size, other.size);
+            System.arraycopy(other.low, 0, low, size, other.size);
+            System.arraycopy(other.close, 0, close, size, other.size);
+            System.arraycopy(other.volume, 0, volume, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        ChartSeries build() {
+            if (sorted) {
+                return new ChartSeries(ticker,
+                        Arrays.copyOf(timestamps, size),
+                        Arrays.copyOf(open, size),
+                        Arrays.copyOf(high, size),
+                        Arrays.copyOf(low, size),
+                        Arrays.copyOf(close, size),
+                        Arrays.copyOf(volume, size));
+            }
+
+            // Stable sort of row indices by timestamp, then gather every column through the permutation
+            int[] order = IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(i -> timestamps[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            return new ChartSeries(ticker,
+                    gather(timestamps, order),
+                    gather(open, order),
+                    gather(high, order),
+                    gather(low, order),
+                    gather(close, order),
+                    gather(volume, order));
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= timestamps.length) {
+                return;
+            }
+            int capacity = Math.max(required, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+
+        private static long[] gather(long[] column, int[] order) {
+            long[] result = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                result[i] = column[order[i]];
+            }
+            return result;
+        }
+    }
+}
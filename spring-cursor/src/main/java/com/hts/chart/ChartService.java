@@ -1,36 +1,81 @@
 package com.hts.chart;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ChartService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChartService.class);
+
     private final ChartRepository chartRepository;
+    private final ChartRollupStore rollupStore;
+    private final ChartQueryCache queryCache;
 
-    public ChartService(ChartRepository chartRepository) {
+    public ChartService(ChartRepository chartRepository, ChartRollupStore rollupStore, ChartQueryCache queryCache,
+                        LiveCandleBuilder liveCandles) {
         this.chartRepository = chartRepository;
+        this.rollupStore = rollupStore;
+        this.queryCache = queryCache;
+        rollupStore.load(chartRepository);
+        liveCandles.addBarListener(this::ingestMinuteBar);
     }
 
+    /**
+     * Returns every bucket overlapping {@code [from, to]}; closed buckets are served from {@link ChartQueryCache}.
+     */
     public List<ChartDataResponse> getChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
-        List<ChartData> chartData = chartRepository.findChartData(ticker, from, to, interval);
-        return chartData.stream()
-                .map(this::convertToResponse)
+        return queryCache.get(ticker, from, to, interval, this::findCandles).stream()
+                .map(Candle::toResponse)
                 .collect(Collectors.toList());
     }
 
-    private ChartDataResponse convertToResponse(ChartData chartData) {
-        return new ChartDataResponse(
-                chartData.getTicker(),
-                chartData.getTimestamp(),
-                chartData.getOpen(),
-                chartData.getHigh(),
-                chartData.getLow(),
-                chartData.getClose(),
-                chartData.getVolume()
-        );
+    /**
+     * Applies a new or revised 1m bar from a live source to the rollup tiers and drops any cached results
+     * it changes. Bars for the open bucket invalidate nothing, since the open bucket is never cached.
+     */
+    public void ingestMinuteBar(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        rollupStore.accept(ticker, timestamp, open, high, low, close, volume);
+        queryCache.invalidateFrom(ticker, ChartInterval.ONE_MINUTE.bucketStart(timestamp));
+    }
+
+    /**
+     * Rebuilds the changed part of a reloaded repository in the rollup tiers and drops the cached results
+     * it affects.
+     */
+    @EventListener
+    public void onChartDataReloaded(ChartDataReloadedEvent event) {
+        if (!chartRepository.isSourceOf(event)) {
+            return;
+        }
+        Map<String, Long> changedFrom = event.getChangedFrom();
+        rollupStore.reload(chartRepository, changedFrom);
+        changedFrom.forEach(queryCache::invalidateFrom);
+        logger.info("Applied reloaded chart data for {} changed tickers", changedFrom.size());
+    }
+
+    private List<Candle> findCandles(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
+        // Pre-aggregated tiers answer any range they fully cover; everything else goes to the repository
+        return rollupStore.covers(ticker, from, interval)
+                ? rollupStore.findCandles(ticker, from, to, interval)
+                : chartRepository.findCandles(ticker, from, to, interval);
+    }
+
+    /**
+     * Streams the candles {@link #getChartData} would return to the sink, one at a time, from the same source.
+     */
+    public void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        if (rollupStore.covers(ticker, from, interval)) {
+            rollupStore.streamChartData(ticker, from, to, interval, sink);
+        } else {
+            chartRepository.streamChartData(ticker, from, to, interval, sink);
+        }
     }
-} 
\ No newline at end of file
+}
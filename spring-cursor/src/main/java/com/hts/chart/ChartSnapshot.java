@@ -0,0 +1,11 @@
+package com.hts.chart;
+
+import java.util.List;
+
+/**
+ * The recent 1m candles sent in a {@code CHART_SNAPSHOT}, with the sequence number of the last
+ * {@link ChartUpdate} they already reflect. {@code complete} is {@code false} when an upstream outage overlaps
+ * the window, so some of the candles missed trades.
+ */
+public record ChartSnapshot(String ticker, long sequence, boolean complete, List<ChartDataResponse> candles) {
+}
@@ -0,0 +1,10 @@
+package com.hts.chart;
+
+import java.util.List;
+
+/**
+ * The 1m candles of a ticker that changed since its last {@code CHART_UPDATE}. Updates are numbered per ticker
+ * without gaps; a {@link ChartSnapshot} carries the number of the last update it already reflects.
+ */
+public record ChartUpdate(String ticker, long sequence, List<ChartDataResponse> candles) {
+}
@@ -0,0 +1,440 @@
+package com.hts.chart;
+
+import com.hts.websocket.TickConsumer;
+import com.hts.websocket.TradeTick;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the live feed behind the request path: raw trades go to {@code tick_data} and live 1m bars are
+ * upserted into {@code chart_data}, both in JDBC batches from a background thread.
+ *
+ * Producers only append to in-memory buffers. Bar updates for the same ticker and minute are coalesced, so an
+ * open bar is written once per flush however often it changes. Buffers are bounded; when the database falls
+ * behind, new rows are dropped and counted instead of growing the heap. A failed batch is retried on the next
+ * flush, resuming after the last chunk that went through. Everything buffered is flushed on shutdown, after
+ * the tick pipeline has drained. Meters: {@code persistence.flush}, {@code persistence.backlog},
+ * {@code persistence.written} and {@code persistence.dropped}, tagged by {@code kind}.
+ *
+ * The bar upsert needs the {@value #UNIQUE_CONSTRAINT} constraint. Schema update cannot add it to a table that
+ * already holds duplicate rows, so startup fails if it is missing rather than every upsert failing later.
+ */
+@Component
+@ConditionalOnProperty(name = "app.persistence.write-behind.enabled", havingValue = "true")
+@DependsOn("entityManagerFactory")
+public class ChartWriteBehind implements TickConsumer, CandleSink, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartWriteBehind.class);
+
+    private static final String INSERT_TICK = "INSERT INTO tick_data (ticker, traded_at, price, volume, cumulative_value) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    // created_at/updated_at are filled by JPA auditing on the entity path, so set them here
+    private static final String UPSERT_CANDLE = "INSERT INTO chart_data " +
+            "(ticker, timestamp, open, high, low, close, volume, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, now(), now()) " +
+            "ON CONFLICT (ticker, timestamp) DO UPDATE SET " +
+            "open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close, " +
+            "volume = EXCLUDED.volume, updated_at = now()";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String UNIQUE_CONSTRAINT = "uk_chart_data_ticker_timestamp";
+
+    private static final String COUNT_UNIQUE_CONSTRAINT = "SELECT count(*) FROM information_schema.table_constraints " +
+            "WHERE table_name = 'chart_data' AND constraint_name = ? AND constraint_type = 'UNIQUE'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    private final Lane<TickBatch> ticks;
+    private final Lane<CandleBatch> candles;
+
+    public ChartWriteBehind(JdbcTemplate jdbcTemplate,
+                            LiveCandleBuilder liveCandles,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.persistence.flush-interval-ms:1000}") long flushIntervalMillis,
+                            @Value("${app.persistence.batch-size:1000}") int batchSize,
+                            @Value("${app.persistence.max-pending-ticks:200000}") int maxPendingTicks,
+                            @Value("${app.persistence.max-pending-candles:50000}") int maxPendingCandles) {
+        Integer constraints = jdbcTemplate.queryForObject(COUNT_UNIQUE_CONSTRAINT, Integer.class, UNIQUE_CONSTRAINT);
+        if (constraints == null || constraints == 0) {
+            throw new IllegalStateException("chart_data has no " + UNIQUE_CONSTRAINT + " constraint, which the "
+                    + "write-behind upsert needs; remove duplicate (ticker, timestamp) rows and restart");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.ticks = new Lane<>("ticks", new TickBatch(maxPendingTicks), new TickBatch(maxPendingTicks), meterRegistry);
+        this.candles = new Lane<>("candles", new CandleBatch(maxPendingCandles), new CandleBatch(maxPendingCandles), meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        liveCandles.addBarListener(this);
+        logger.info("Write-behind persistence enabled: flush every {}ms in batches of {}", flushIntervalMillis, batchSize);
+    }
+
+    @Override
+    public String getStageName() {
+        return "persistence";
+    }
+
+    /** Ticks from before a restart were flushed then, or were lost with the process. */
+    @Override
+    public boolean acceptsReplay() {
+        return false;
+    }
+
+    /**
+     * Buffers a raw trade. Called on the pipeline's stage thread.
+     */
+    @Override
+    public void onTick(TradeTick tick) {
+        int pending;
+        synchronized (ticks) {
+            pending = ticks.active.add(tick) ? ticks.active.size() : -1;
+        }
+        afterAppend(ticks, pending);
+    }
+
+    /**
+     * Buffers a new or changed 1m bar, replacing any pending version of the same minute. Called on the candle
+     * stage thread.
+     */
+    @Override
+    public void accept(String ticker, long timestamp, long open, long high, long low, long close, long volume) {
+        int pending;
+        synchronized (candles) {
+            pending = candles.active.put(ticker, timestamp, open, high, low, close, volume) ? candles.active.size() : -1;
+        }
+        afterAppend(candles, pending);
+    }
+
+    /**
+     * Drains the buffers on the flush thread, after any flush already running there, so no batch is ever
+     * written from two threads. Rows still pending when the wait runs out are abandoned.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.execute(this::drain);
+        flusher.shutdown();
+        if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Write-behind still flushing after 30 seconds; abandoning about {} pending rows",
+                    ticks.backlog() + candles.backlog());
+            flusher.shutdownNow();
+        }
+    }
+
+    private void afterAppend(Lane<?> lane, int pending) {
+        if (pending < 0) {
+            lane.dropped.increment();
+            // Warn once per overflow episode; the counter has the totals
+            if (!lane.full) {
+                lane.full = true;
+                logger.warn("Write-behind {} buffer full, dropping rows until the database catches up", lane.kind);
+            }
+            return;
+        }
+        lane.full = false;
+        if (pending == batchSize) {
+            // A full batch is waiting; don't hold it until the next tick of the schedule
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the drain queued by destroy() flushes what is left
+            }
+        }
+    }
+
+    private void flush() {
+        ticks.flush();
+        candles.flush();
+    }
+
+    private void drain() {
+        // Standby first, then whatever was still being appended; a lane gives up after MAX_ATTEMPTS failures
+        for (Lane<?> lane : new Lane<?>[]{ticks, candles}) {
+            while (lane.backlog() > 0) {
+                lane.flush();
+            }
+        }
+        logger.info("Write-behind persistence flushed on shutdown");
+    }
+
+    /**
+     * Rows buffered in memory, written in chunks. {@link #written} counts rows already in the database, so a
+     * retried batch resumes where the failed one stopped.
+     */
+    private abstract class Batch {
+
+        int written;
+
+        abstract int size();
+
+        abstract void clear();
+
+        abstract String sql();
+
+        abstract void bind(PreparedStatement ps, int row) throws SQLException;
+
+        void write() {
+            while (written < size()) {
+                int offset = written;
+                int count = Math.min(batchSize, size() - offset);
+                jdbcTemplate.batchUpdate(sql(), new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, offset + i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+                written += count;
+            }
+        }
+    }
+
+    private final class TickBatch extends Batch {
+
+        private final String[] tickers;
+        private final long[] tradedAt;
+        private final long[] price;
+        private final long[] volume;
+        private final long[] cumulativeValue;
+        private int size;
+
+        TickBatch(int capacity) {
+            this.tickers = new String[capacity];
+            this.tradedAt = new long[capacity];
+            this.price = new long[capacity];
+            this.volume = new long[capacity];
+            this.cumulativeValue = new long[capacity];
+        }
+
+        boolean add(TradeTick tick) {
+            if (size == tickers.length) {
+                return false;
+            }
+            tickers[size] = tick.getTicker();
+            tradedAt[size] = LiveCandleBuilder.toEpochMillis(tick.getBusinessDate(), tick.getTradeTime());
+            price[size] = tick.getPrice();
+            volume[size] = tick.getVolume();
+            cumulativeValue[size] = tick.getCumulativeValue();
+            size++;
+            return true;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void clear() {
+            size = 0;
+            written = 0;
+        }
+
+        @Override
+        String sql() {
+            return INSERT_TICK;
+        }
+
+        @Override
+        void bind(PreparedStatement ps, int row) throws SQLException {
+            ps.setString(1, tickers[row]);
+            ps.setObject(2, Candle.toLocalDateTime(tradedAt[row]));
+            ps.setBigDecimal(3, Candle.toDecimal(price[row]));
+            ps.setLong(4, volume[row]);
+            ps.setLong(5, cumulativeValue[row]);
+        }
+    }
+
+    private final class CandleBatch extends Batch {
+
+        private final Map<CandleKey, Integer> rowByKey = new HashMap<>();
+        private final String[] tickers;
+        private final long[] timestamps;
+        private final long[] open;
+        private final long[] high;
+        private final long[] low;
+        private final long[] close;
+        private final long[] volume;
+        private int size;
+
+        CandleBatch(int capacity) {
+            this.tickers = new String[capacity];
+            this.timestamps = new long[capacity];
+            this.open = new long[capacity];
+            this.high = new long[capacity];
+            this.low = new long[capacity];
+            this.close = new long[capacity];
+            this.volume = new long[capacity];
+        }
+
+        boolean put(String ticker, long timestamp, long o, long h, long l, long c, long v) {
+            Integer row = rowByKey.get(new CandleKey(ticker, timestamp));
+            int i;
+            if (row != null) {
+                i = row;
+            } else if (size < tickers.length) {
+                i = size++;
+                rowByKey.put(new CandleKey(ticker, timestamp), i);
+                tickers[i] = ticker;
+                timestamps[i] = timestamp;
+            } else {
+                return false;
+            }
+            open[i] = o;
+            high[i] = h;
+            low[i] = l;
+            close[i] = c;
+            volume[i] = v;
+            return true;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void clear() {
+            rowByKey.clear();
+            size = 0;
+            written = 0;
+        }
+
+        @Override
+        String sql() {
+            return UPSERT_CANDLE;
+        }
+
+        @Override
+        void bind(PreparedStatement ps, int row) throws SQLException {
+            ps.setString(1, tickers[row]);
+            ps.setObject(2, Candle.toLocalDateTime(timestamps[row]));
+            ps.setBigDecimal(3, Candle.toDecimal(open[row]));
+            ps.setBigDecimal(4, Candle.toDecimal(high[row]));
+            ps.setBigDecimal(5, Candle.toDecimal(low[row]));
+            ps.setBigDecimal(6, Candle.toDecimal(close[row]));
+            ps.setLong(7, volume[row]);
+        }
+    }
+
+    private record CandleKey(String ticker, long timestamp) {
+    }
+
+    /**
+     * Double buffer for one kind of row: producers append to {@code active} under the lane's lock while the
+     * flush thread writes {@code standby}, and the two swap once the standby batch is written.
+     */
+    private final class Lane<B extends Batch> {
+
+        final String kind;
+        final Timer flushTimer;
+        final Counter written;
+        final Counter dropped;
+        B active;
+        B standby;
+        int failures;
+        // Producer thread only
+        boolean full;
+
+        Lane(String kind, B active, B standby, MeterRegistry meterRegistry) {
+            this.kind = kind;
+            this.active = active;
+            this.standby = standby;
+            this.flushTimer = Timer.builder("persistence.flush")
+                    .description("Time to write one flushed batch")
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+            this.written = Counter.builder("persistence.written")
+                    .description("Rows written by the write-behind")
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("persistence.dropped")
+                    .description("Rows dropped because the buffer was full or the write kept failing")
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+            Gauge.builder("persistence.backlog", this, Lane::backlog)
+                    .description("Rows buffered but not yet written")
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+        synchronized int backlog() {
+            return active.size() + standby.size() - standby.written;
+        }
+
+        /** Writes the standby batch, first swapping in the active one if standby is empty. Flush thread only. */
+        void flush() {
+            B batch;
+            synchronized (this) {
+                if (standby.size() == 0) {
+                    B empty = standby;
+                    standby = active;
+                    active = empty;
+                }
+                batch = standby;
+            }
+            if (batch.size() == 0) {
+                return;
+            }
+
+            int before = batch.written;
+            long start = System.nanoTime();
+            try {
+                batch.write();
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                failures = 0;
+            } catch (RuntimeException e) {
+                written.increment(batch.written - before);
+                if (++failures < MAX_ATTEMPTS) {
+                    logger.warn("Write-behind {} flush failed ({} of {} rows pending); retrying", kind,
+                            batch.size() - batch.written, batch.size(), e);
+                    return;
+                }
+                logger.error("Write-behind {} flush failed {} times; dropping {} rows", kind, failures,
+                        batch.size() - batch.written, e);
+                dropped.increment(batch.size() - batch.written);
+                failures = 0;
+                synchronized (this) {
+                    batch.clear();
+                }
+                return;
+            }
+            written.increment(batch.written - before);
+            synchronized (this) {
+                batch.clear();
+            }
+        }
+    }
+}
@@ -1,108 +1,112 @@
 package com.hts.chart;
 
-import com.opencsv.CSVReader;
+import com.hts.common.file.CsvFileWatcher;
 import com.opencsv.exceptions.CsvException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Repository("csvChartRepository")
 public class CsvChartRepository implements ChartRepository {
 
-    private static final String CHART_DATA_FILE = "stocks.csv";
-    private List<ChartData> chartDataCache;
+    private final String chartDataFile;
+    private final ApplicationEventPublisher eventPublisher;
+    // Immutable snapshot, replaced as a whole on reload; read it once per call
+    private volatile Map<String, ChartSeries> seriesByTicker = Map.of();
+    // Set after the initial load, which runs on the constructing thread; reloads run on the watcher thread
+    private volatile boolean loaded;
 
-    public CsvChartRepository() {
-        loadChartData();
+    public CsvChartRepository(@Value("${app.csv.chart-data-file:국내주식분봉차트v1.csv}") String chartDataFile,
+                              CsvFileWatcher fileWatcher,
+                              ApplicationEventPublisher eventPublisher) {
+        this.chartDataFile = chartDataFile;
+        this.eventPublisher = eventPublisher;
+        fileWatcher.register("chart", chartDataFile, this::loadChartData);
     }
 
-    private void loadChartData() {
-        chartDataCache = new ArrayList<>();
-        try (CSVReader reader = new CSVReader(new FileReader(CHART_DATA_FILE))) {
-            List<String[]> rows = reader.readAll();
+    private int loadChartData() throws IOException, CsvException {
+        Map<String, ChartSeries> previous = seriesByTicker;
+        Map<String, ChartSeries> next = ChartCsvReader.readSeries(chartDataFile);
+        seriesByTicker = next;
 
-            // Skip header row
-            for (int i = 1; i < rows.size(); i++) {
-                String[] row = rows.get(i);
-                if (row.length >= 10) {
-                    ChartData chartData = new ChartData(
-                            row[1], // 종목코드 (ticker)
-                            parseDateTime(row[2], row[3]), // 영업일자 + 체결시간
-                            parseBigDecimal(row[5]), // 시가 (open)
-                            parseBigDecimal(row[6]), // 고가 (high)
-                            parseBigDecimal(row[7]), // 저가 (low)
-                            parseBigDecimal(row[4]), // 현재가 (close)
-                            parseLong(row[8]) // 체결거래량 (volume)
-                    );
-                    chartDataCache.add(chartData);
-                }
+        if (loaded) {
+            Map<String, Long> changedFrom = changedFrom(previous, next);
+            if (!changedFrom.isEmpty()) {
+                eventPublisher.publishEvent(new ChartDataReloadedEvent(this, changedFrom));
             }
-        } catch (IOException | CsvException e) {
-            System.err.println("Error loading chart data: " + e.getMessage());
         }
+        loaded = true;
+        return next.values().stream().mapToInt(ChartSeries::size).sum();
+    }
+
+    private static Map<String, Long> changedFrom(Map<String, ChartSeries> previous, Map<String, ChartSeries> next) {
+        Map<String, Long> changed = new HashMap<>();
+        next.forEach((ticker, series) -> {
+            ChartSeries old = previous.get(ticker);
+            long from = old == null ? Long.MIN_VALUE : old.firstDifference(series);
+            if (from != Long.MAX_VALUE) {
+                changed.put(ticker, from);
+            }
+        });
+        previous.keySet().stream()
+                .filter(ticker -> !next.containsKey(ticker))
+                .forEach(ticker -> changed.put(ticker, Long.MIN_VALUE));
+        return changed;
     }
 
     @Override
     public List<ChartData> findChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
-        return chartDataCache.stream()
-                .filter(data -> data.getTicker().equals(ticker))
-                .filter(data -> !data.getTimestamp().isBefore(from))
-                .filter(data -> !data.getTimestamp().isAfter(to))
-                .collect(Collectors.toList());
+        ChartSeries series = seriesByTicker.get(ticker);
+        if (series == null) {
+            return new ArrayList<>();
+        }
+        if (interval == null || interval == ChartInterval.ONE_MINUTE) {
+            return series.slice(Candle.toEpochMillis(from), Candle.toEpochMillis(to));
+        }
+
+        List<ChartData> result = new ArrayList<>();
+        streamChartData(ticker, from, to, interval, ChartAggregator.collectInto(result));
+        return result;
     }
 
     @Override
     public List<ChartData> findByTicker(String ticker) {
-        return chartDataCache.stream()
-                .filter(data -> data.getTicker().equals(ticker))
-                .collect(Collectors.toList());
-    }
-
-    private LocalDateTime parseDateTime(String dateStr, String timeStr) {
-        try {
-            // Parse date: YYYYMMDD format
-            LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("yyyyMMdd"));
-
-            // Parse time: HHMMSS format
-            int hour = Integer.parseInt(timeStr.substring(0, 2));
-            int minute = Integer.parseInt(timeStr.substring(2, 4));
-            int second = Integer.parseInt(timeStr.substring(4, 6));
-            LocalTime time = LocalTime.of(hour, minute, second);
-
-            return LocalDateTime.of(date, time);
-        } catch (Exception e) {
-            return LocalDateTime.now();
+        ChartSeries series = seriesByTicker.get(ticker);
+        if (series == null) {
+            return new ArrayList<>();
         }
+        return series.all();
     }
 
-    private BigDecimal parseBigDecimal(String value) {
-        try {
-            if (value == null || value.trim().isEmpty()) {
-                return BigDecimal.ZERO;
-            }
-            return new BigDecimal(value.replace(",", ""));
-        } catch (NumberFormatException e) {
-            return BigDecimal.ZERO;
+    @Override
+    public void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        ChartSeries series = seriesByTicker.get(ticker);
+        if (series == null) {
+            return;
         }
+        if (interval == null || interval == ChartInterval.ONE_MINUTE) {
+            series.forEach(Candle.toEpochMillis(from), Candle.toEpochMillis(to), sink);
+            return;
+        }
+
+        // Roll up straight from the primitive columns, starting at the boundary of the first bucket
+        ChartAggregator aggregator = new ChartAggregator(interval, sink);
+        series.forEach(interval.bucketStart(Candle.toEpochMillis(from)), Candle.toEpochMillis(to), aggregator);
+        aggregator.finish();
     }
 
-    private Long parseLong(String value) {
-        try {
-            if (value == null || value.trim().isEmpty()) {
-                return 0L;
-            }
-            return Long.parseLong(value.replace(",", ""));
-        } catch (NumberFormatException e) {
-            return 0L;
+    @Override
+    public boolean replayTo(CandleSink sink) {
+        for (ChartSeries series : seriesByTicker.values()) {
+            series.forEach(Long.MIN_VALUE, Long.MAX_VALUE, sink);
         }
+        return true;
     }
-} 
\ No newline at end of file
+}
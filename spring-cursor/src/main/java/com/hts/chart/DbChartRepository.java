@@ -1,16 +1,46 @@
 package com.hts.chart;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository("dbChartRepository")
 public interface DbChartRepository extends ChartRepository, JpaRepository<ChartData, Long> {
 
+    String RANGE_QUERY = "SELECT c.ticker, c.timestamp, c.open, c.high, c.low, c.close, c.volume " +
+            "FROM chart_data c " +
+            "WHERE c.ticker = :ticker AND c.timestamp BETWEEN :from AND :to " +
+            "ORDER BY c.timestamp";
+
+    /**
+     * Buckets 1m rows in Postgres (14+), producing the same column layout as {@link #RANGE_QUERY}. Buckets are
+     * aligned to midnight, matching {@link ChartInterval#bucketStart(long)}.
+     */
+    String BUCKET_QUERY = "SELECT c.ticker, " +
+            "date_bin(:bucketSeconds * INTERVAL '1 second', c.timestamp, TIMESTAMP '2000-01-01 00:00:00') AS bucket, " +
+            "(array_agg(c.open ORDER BY c.timestamp))[1] AS open, " +
+            "MAX(c.high) AS high, " +
+            "MIN(c.low) AS low, " +
+            "(array_agg(c.close ORDER BY c.timestamp DESC))[1] AS close, " +
+            "SUM(c.volume) AS volume " +
+            "FROM chart_data c " +
+            "WHERE c.ticker = :ticker AND c.timestamp BETWEEN :from AND :to " +
+            "GROUP BY c.ticker, bucket " +
+            "ORDER BY bucket";
+
+    String STREAM_FETCH_SIZE = "1000";
+
     @Query("SELECT c FROM ChartData c WHERE c.ticker = :ticker AND c.timestamp BETWEEN :from AND :to ORDER BY c.timestamp")
     List<ChartData> findChartDataByTickerAndTimeRange(
             @Param("ticker") String ticker,
@@ -18,12 +48,80 @@ public interface DbChartRepository extends ChartRepository, JpaRepository<ChartD
             @Param("to") LocalDateTime to
     );
 
+    @Query(value = BUCKET_QUERY, nativeQuery = true)
+    List<Object[]> findBucketedChartData(
+            @Param("ticker") String ticker,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("bucketSeconds") long bucketSeconds
+    );
+
+    @Query(value = RANGE_QUERY, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    Stream<Object[]> streamChartDataByTickerAndTimeRange(
+            @Param("ticker") String ticker,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query(value = BUCKET_QUERY, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    Stream<Object[]> streamBucketedChartData(
+            @Param("ticker") String ticker,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("bucketSeconds") long bucketSeconds
+    );
+
     @Override
     default List<ChartData> findChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
-        // TODO: Implement interval-based aggregation logic
-        return findChartDataByTickerAndTimeRange(ticker, from, to);
+        if (interval == null || interval == ChartInterval.ONE_MINUTE) {
+            return findChartDataByTickerAndTimeRange(ticker, from, to);
+        }
+        return findBucketedChartData(ticker, interval.bucketStart(from), to, interval.getMillis() / 1000)
+                .stream()
+                .map(DbChartRepository::toChartData)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads scalar rows through a server-side cursor, so neither the result nor managed entities accumulate
+     * on the heap. The transaction keeps the cursor open while the sink consumes it.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    default void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        try (Stream<Object[]> rows = interval == null || interval == ChartInterval.ONE_MINUTE
+                ? streamChartDataByTickerAndTimeRange(ticker, from, to)
+                : streamBucketedChartData(ticker, interval.bucketStart(from), to, interval.getMillis() / 1000)) {
+            rows.forEach(row -> sink.accept(
+                    (String) row[0],
+                    Candle.toEpochMillis(toLocalDateTime(row[1])),
+                    Candle.toFixed((BigDecimal) row[2]),
+                    Candle.toFixed((BigDecimal) row[3]),
+                    Candle.toFixed((BigDecimal) row[4]),
+                    Candle.toFixed((BigDecimal) row[5]),
+                    ((Number) row[6]).longValue()
+            ));
+        }
     }
 
     @Override
     List<ChartData> findByTicker(String ticker);
-} 
\ No newline at end of file
+
+    private static ChartData toChartData(Object[] row) {
+        return new ChartData(
+                (String) row[0],
+                toLocalDateTime(row[1]),
+                (BigDecimal) row[2],
+                (BigDecimal) row[3],
+                (BigDecimal) row[4],
+                (BigDecimal) row[5],
+                ((Number) row[6]).longValue()
+        );
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,111 @@
+package com.hts.chart;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.hts.websocket.dto.FrontendWebSocketRequest;
+import com.hts.websocket.dto.FrontendWebSocketResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * Frontend message encodings, chosen per session by WebSocket subprotocol. {@value #JSON_PROTOCOL}, or no
+ * subprotocol at all, gets JSON text frames; {@value #CBOR_PROTOCOL} gets the same messages as CBOR binary frames.
+ *
+ * The CBOR mapper is a copy of the application's, so field names, dates and null handling match the JSON. Prices
+ * are written as floating-point numbers because decimal fractions (CBOR tag 4) are not widely decoded by browser
+ * libraries.
+ */
+final class FrontendCodec {
+
+    static final String JSON_PROTOCOL = "hts.json";
+    static final String CBOR_PROTOCOL = "hts.cbor";
+
+    private static final Logger logger = LoggerFactory.getLogger(FrontendCodec.class);
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    FrontendCodec(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory())
+                .registerModule(new SimpleModule().addSerializer(BigDecimal.class, new DoubleSerializer()));
+    }
+
+    static boolean isBinary(String acceptedProtocol) {
+        return CBOR_PROTOCOL.equals(acceptedProtocol);
+    }
+
+    /**
+     * Serializes a response for one encoding; {@code null} if it cannot be serialized.
+     */
+    WebSocketMessage<?> encode(FrontendWebSocketResponse response, boolean binary) {
+        try {
+            return binary
+                    ? new BinaryMessage(cborMapper.writeValueAsBytes(response))
+                    : new TextMessage(jsonMapper.writeValueAsString(response));
+        } catch (IOException e) {
+            logger.error("Failed to serialize {} message", response.getType(), e);
+            return null;
+        }
+    }
+
+    FrontendWebSocketRequest decode(TextMessage message) throws IOException {
+        return jsonMapper.readValue(message.getPayload(), FrontendWebSocketRequest.class);
+    }
+
+    FrontendWebSocketRequest decode(BinaryMessage message) throws IOException {
+        ByteBuffer payload = message.getPayload();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return cborMapper.readValue(bytes, FrontendWebSocketRequest.class);
+    }
+
+    /**
+     * One response to be sent to many sessions, serialized at most once per encoding on first use. Not
+     * thread-safe; use it from the thread that fans out.
+     */
+    final class Frame {
+
+        private final FrontendWebSocketResponse response;
+        private WebSocketMessage<?> text;
+        private WebSocketMessage<?> binary;
+
+        Frame(FrontendWebSocketResponse response) {
+            this.response = response;
+        }
+
+        /** The message in the session's encoding; {@code null} if it cannot be serialized. */
+        WebSocketMessage<?> forSession(FrontendSession session) {
+            if (session.isBinary()) {
+                if (binary == null) {
+                    binary = encode(response, true);
+                }
+                return binary;
+            }
+            if (text == null) {
+                text = encode(response, false);
+            }
+            return text;
+        }
+    }
+
+    private static final class DoubleSerializer extends JsonSerializer<BigDecimal> {
+
+        @Override
+        public void serialize(BigDecimal value, JsonGenerator generator, SerializerProvider serializers)
+                throws IOException {
+            generator.writeNumber(value.doubleValue());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.hts.chart;
+
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbound side of one frontend session. Every thread that pushes to the session goes through a
+ * {@link ConcurrentWebSocketSessionDecorator}: one sender writes at a time and the others queue and return, so a
+ * stalled browser backs up only its own buffer.
+ *
+ * When the queued bytes would pass {@code bufferSizeLimit} the overflow policy decides: {@code CONFLATE} holds
+ * back trades keeping only the latest per ticker until the buffer drains, and drops other messages;
+ * {@code DROP} drops the message; {@code DISCONNECT} closes the session. A send that stays blocked past
+ * {@code sendTimeLimit} closes the session under every policy.
+ */
+final class FrontendSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrontendSession.class);
+
+    enum OverflowPolicy { CONFLATE, DROP, DISCONNECT }
+
+    private final WebSocketSession session;
+    private final ConcurrentWebSocketSessionDecorator outbound;
+    private final OverflowPolicy policy;
+    private final boolean binary;
+    private final int bufferSizeLimit;
+    private final Counter droppedCounter;
+    private final Counter conflatedCounter;
+    // Latest held-back trade per ticker, CONFLATE only
+    private final ConcurrentMap<String, WebSocketMessage<?>> heldTrades = new ConcurrentHashMap<>();
+    // CONFLATE only: held while deciding whether a trade goes out now, so no trade overtakes a held one
+    private final ReentrantLock tradeLock = new ReentrantLock();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicBoolean disconnecting = new AtomicBoolean();
+
+    FrontendSession(WebSocketSession session, OverflowPolicy policy, int sendTimeLimit, int bufferSizeLimit,
+                    Counter droppedCounter, Counter conflatedCounter) {
+        this.session = session;
+        this.policy = policy;
+        this.binary = FrontendCodec.isBinary(session.getAcceptedProtocol());
+        this.bufferSizeLimit = bufferSizeLimit;
+        // The decorator's own limit is only a backstop for concurrent senders racing past the check in send
+        this.outbound = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit, bufferSizeLimit * 2,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE);
+        this.droppedCounter = droppedCounter;
+        this.conflatedCounter = conflatedCounter;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    boolean isOpen() {
+        return session.isOpen();
+    }
+
+    /** Whether the session negotiated binary frames. */
+    boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Queues a message, applying the overflow policy if the buffer is full. Returns whether it was queued.
+     */
+    boolean send(WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        if (outbound.getBufferSize() + message.getPayloadLength() > bufferSizeLimit) {
+            overflow();
+            return false;
+        }
+        try {
+            outbound.sendMessage(message);
+            sent.incrementAndGet();
+            return true;
+        } catch (SessionLimitExceededException e) {
+            logger.warn("Closing slow frontend session {}: {}", session.getId(), e.getMessage());
+            return false;
+        } catch (IOException e) {
+            logger.debug("Send to frontend session {} failed", session.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Queues a trade. Under {@code CONFLATE} a trade that does not fit is held back, replacing any trade of the
+     * same ticker still held, until {@link #flushHeldTrades} finds room. Returns whether it was queued now.
+     */
+    boolean sendTrade(String ticker, WebSocketMessage<?> message) {
+        if (policy != OverflowPolicy.CONFLATE) {
+            return send(message);
+        }
+        if (!tradeLock.tryLock()) {
+            // A flush is handing held trades over; queue behind them rather than overtake one
+            hold(ticker, message);
+            return false;
+        }
+        try {
+            if (!heldTrades.isEmpty()) {
+                sendHeldTrades();
+            }
+            if (session.isOpen()
+                    && (!heldTrades.isEmpty() || outbound.getBufferSize() + message.getPayloadLength() > bufferSizeLimit)) {
+                // Once anything is held, later trades queue behind it so a ticker's trades stay in order
+                hold(ticker, message);
+                return false;
+            }
+            return send(message);
+        } finally {
+            tradeLock.unlock();
+        }
+    }
+
+    /**
+     * Queues held-back trades while they fit. Called periodically; skips a round rather than wait for a
+     * trade being sent on the stage thread.
+     */
+    void flushHeldTrades() {
+        if (heldTrades.isEmpty() || !tradeLock.tryLock()) {
+            return;
+        }
+        try {
+            sendHeldTrades();
+        } finally {
+            tradeLock.unlock();
+        }
+    }
+
+    private void hold(String ticker, WebSocketMessage<?> message) {
+        if (heldTrades.put(ticker, message) != null) {
+            conflated.incrementAndGet();
+            conflatedCounter.increment();
+        }
+    }
+
+    /** Called under the trade lock. */
+    private void sendHeldTrades() {
+        Iterator<Map.Entry<String, WebSocketMessage<?>>> held = heldTrades.entrySet().iterator();
+        while (held.hasNext() && session.isOpen()) {
+            Map.Entry<String, WebSocketMessage<?>> entry = held.next();
+            if (outbound.getBufferSize() + entry.getValue().getPayloadLength() > bufferSizeLimit) {
+                return;
+            }
+            // Only if no newer trade replaced it meanwhile; that one is sent on the next flush
+            WebSocketMessage<?> message = entry.getValue();
+            if (heldTrades.remove(entry.getKey(), message)) {
+                send(message);
+            }
+        }
+    }
+
+    /** Bytes queued but not yet written to the socket. */
+    int getBufferedBytes() {
+        return outbound.getBufferSize();
+    }
+
+    int getHeldTrades() {
+        return heldTrades.size();
+    }
+
+    long getSent() {
+        return sent.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getConflated() {
+        return conflated.get();
+    }
+
+    private void overflow() {
+        dropped.incrementAndGet();
+        droppedCounter.increment();
+        if (policy == OverflowPolicy.DISCONNECT && disconnecting.compareAndSet(false, true)) {
+            logger.warn("Closing frontend session {}: {} bytes queued", session.getId(), outbound.getBufferSize());
+            try {
+                // Close the raw session; the decorator would wait for the stalled sender
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                logger.debug("Failed to close frontend session {}", session.getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.hts.chart;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/frontendsessions}: send buffer state of every open frontend session, to spot slow
+ * consumers. Totals across sessions are the {@code frontend.*} metrics.
+ */
+@Component
+@Endpoint(id = "frontendsessions")
+public class FrontendSessionsEndpoint {
+
+    private final ChartDataWebSocketHandler handler;
+
+    public FrontendSessionsEndpoint(ChartDataWebSocketHandler handler) {
+        this.handler = handler;
+    }
+
+    @ReadOperation
+    public List<SessionState> sessions() {
+        return handler.getSessions().stream()
+                .map(session -> new SessionState(session.getId(), session.getBufferedBytes(),
+                        session.getHeldTrades(), session.getSent(), session.getDropped(), session.getConflated()))
+                .toList();
+    }
+
+    /**
+     * Queued bytes and held-back trades now; message counts since the session opened.
+     */
+    public record SessionState(String id, int bufferedBytes, int heldTrades, long sent, long dropped,
+                               long conflated) {
+    }
+}
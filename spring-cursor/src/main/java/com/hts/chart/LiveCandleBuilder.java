@@ -0,0 +1,377 @@
+package com.hts.chart;
+
+import com.hts.websocket.FeedGap;
+import com.hts.websocket.KoreaInvestmentWebSocketClient;
+import com.hts.websocket.TickConsumer;
+import com.hts.websocket.TickLatency;
+import com.hts.websocket.TradeTick;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Builds 1m candles from live trades: per ticker, the open bar plus a bounded window of the most recent closed
+ * bars, answered straight from memory.
+ *
+ * Ticks arrive on the tick pipeline's stage thread. A bar closes when the first trade of a later minute
+ * arrives; closed bars are pushed to bar listeners immediately and open bars at the end of each batch.
+ * Minutes overlapped by an upstream outage are remembered, so callers can tell which bars missed trades.
+ */
+@Component
+public class LiveCandleBuilder implements TickConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveCandleBuilder.class);
+
+    private static final int STREAM_CHUNK_SIZE = 512;
+
+    private final int windowMinutes;
+    private final TickLatency latency;
+    private final ConcurrentMap<String, LiveSeries> seriesByTicker = new ConcurrentHashMap<>();
+    private final List<CandleSink> barListeners = new CopyOnWriteArrayList<>();
+    // Touched only on the stage thread; the bars are reused to pass candles to listeners
+    private final List<LiveSeries> dirty = new ArrayList<>();
+    private final Bar closedBar = new Bar();
+    private final Bar openBar = new Bar();
+
+    public LiveCandleBuilder(KoreaInvestmentWebSocketClient tradeFeed, TickLatency latency,
+                             @Value("${app.chart.live.window-minutes:1440}") int windowMinutes) {
+        this.windowMinutes = windowMinutes;
+        this.latency = latency;
+        tradeFeed.addGapListener(this::markIncomplete);
+    }
+
+    /**
+     * Registers a sink for new and revised 1m bars, such as the rollup tiers. Called on the stage thread.
+     */
+    public void addBarListener(CandleSink listener) {
+        barListeners.add(listener);
+    }
+
+    @Override
+    public String getStageName() {
+        return "candles";
+    }
+
+    @Override
+    public void onTick(TradeTick tick) {
+        long minute = ChartInterval.ONE_MINUTE.bucketStart(toEpochMillis(tick.getBusinessDate(), tick.getTradeTime()));
+        LiveSeries series = seriesByTicker.computeIfAbsent(tick.getTicker(), ticker -> new LiveSeries(ticker, windowMinutes));
+
+        int result = series.apply(minute, tick.getPrice(), tick.getVolume(), closedBar);
+        latency.recordAggregated(tick);
+        if (result == LiveSeries.ROLLED) {
+            publish(closedBar);
+        } else if (result == LiveSeries.REVISED) {
+            publish(closedBar);
+            return;
+        } else if (result == LiveSeries.DROPPED) {
+            logger.debug("Dropped late trade for {} with no bar in the live window", tick.getTicker());
+            return;
+        }
+        if (!series.dirty) {
+            series.dirty = true;
+            dirty.add(series);
+        }
+    }
+
+    @Override
+    public void onBatchEnd() {
+        for (LiveSeries series : dirty) {
+            series.dirty = false;
+            series.copyOpenBar(openBar);
+            publish(openBar);
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Whether the ticker's bars between {@code from} and {@code to} were built from an unbroken feed, i.e. no
+     * recorded upstream outage overlaps them.
+     */
+    public boolean isComplete(String ticker, LocalDateTime from, LocalDateTime to) {
+        LiveSeries series = seriesByTicker.get(ticker);
+        return series == null || !series.overlapsGap(Candle.toEpochMillis(from), Candle.toEpochMillis(to));
+    }
+
+    /**
+     * Streams the ticker's bars with {@code from <= timestamp <= to}, the open bar last, rolled up to the
+     * interval. Bars are copied out in chunks so the ticker is never locked while the sink runs.
+     */
+    public void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        ChartInterval target = interval != null ? interval : ChartInterval.ONE_MINUTE;
+        if (target == ChartInterval.ONE_MINUTE) {
+            forEach(ticker, Candle.toEpochMillis(from), Candle.toEpochMillis(to), sink);
+            return;
+        }
+
+        ChartAggregator aggregator = new ChartAggregator(target, sink);
+        forEach(ticker, target.bucketStart(Candle.toEpochMillis(from)), Candle.toEpochMillis(to), aggregator);
+        aggregator.finish();
+    }
+
+    /**
+     * Pushes the ticker's 1m bars with {@code from <= timestamp <= to} to the sink, the open bar last.
+     */
+    void forEach(String ticker, long from, long to, CandleSink sink) {
+        LiveSeries series = seriesByTicker.get(ticker);
+        if (series == null) {
+            return;
+        }
+
+        long cursor = from;
+        CandleBuffer buffer = new CandleBuffer(STREAM_CHUNK_SIZE);
+        while (true) {
+            series.fill(cursor, to, buffer);
+            boolean more = buffer.isFull();
+            if (more) {
+                cursor = buffer.lastTimestamp() + 1;
+            }
+            buffer.drainTo(ticker, sink);
+            if (!more) {
+                break;
+            }
+        }
+    }
+
+    private void markIncomplete(FeedGap gap) {
+        long from = ChartInterval.ONE_MINUTE.bucketStart(Candle.toEpochMillis(gap.from()));
+        long to = Candle.toEpochMillis(gap.to());
+        for (String ticker : gap.tickers()) {
+            LiveSeries series = seriesByTicker.get(ticker);
+            if (series != null) {
+                series.addGap(from, to);
+            }
+        }
+    }
+
+    private void publish(Bar bar) {
+        for (CandleSink listener : barListeners) {
+            try {
+                listener.accept(bar.ticker, bar.timestamp, bar.open, bar.high, bar.low, bar.close, bar.volume);
+            } catch (Exception e) {
+                logger.error("Bar listener failed for {}", bar.ticker, e);
+            }
+        }
+    }
+
+    /**
+     * {@code yyyyMMdd} and {@code HHmmss} to local epoch millis, without going through {@code java.time}.
+     */
+    public static long toEpochMillis(int date, int time) {
+        long epochDay = epochDay(date / 10000, date / 100 % 100, date % 100);
+        long secondOfDay = time / 10000 * 3600L + time / 100 % 100 * 60L + time % 100;
+        return (epochDay * 86_400L + secondOfDay) * 1000L;
+    }
+
+    /** Days since 1970-01-01 for a proleptic Gregorian date (civil-to-days). */
+    private static long epochDay(long year, long month, long day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static final class Bar {
+        String ticker;
+        long timestamp;
+        long open;
+        long high;
+        long low;
+        long close;
+        long volume;
+    }
+
+    /**
+     * One ticker's open bar and a circular window of closed bars in time order. Written by the stage thread,
+     * read by request threads; both under the instance lock.
+     */
+    private static final class LiveSeries {
+
+        static final int UPDATED = 0;
+        static final int ROLLED = 1;
+        static final int REVISED = 2;
+        static final int DROPPED = 3;
+
+        private static final int MAX_GAPS = 64;
+
+        private final String ticker;
+        private final long[] timestamps;
+        private final long[] open;
+        private final long[] high;
+        private final long[] low;
+        private final long[] close;
+        private final long[] volume;
+        private int head;
+        private int size;
+
+        private boolean hasOpenBar;
+        private long openTimestamp;
+        private long openOpen;
+        private long openHigh;
+        private long openLow;
+        private long openClose;
+        private long openVolume;
+        // {from, to} of recent outages, oldest first
+        private final ArrayDeque<long[]> gaps = new ArrayDeque<>();
+
+        // Stage thread only
+        boolean dirty;
+
+        LiveSeries(String ticker, int capacity) {
+            this.ticker = ticker;
+            this.timestamps = new long[capacity];
+            this.open = new long[capacity];
+            this.high = new long[capacity];
+            this.low = new long[capacity];
+            this.close = new long[capacity];
+            this.volume = new long[capacity];
+        }
+
+        /**
+         * Applies one trade. On {@link #ROLLED} the bar that just closed, and on {@link #REVISED} the updated
+         * closed bar, is copied into {@code changed}.
+         */
+        synchronized int apply(long minute, long price, long tradeVolume, Bar changed) {
+            if (!hasOpenBar || minute > openTimestamp) {
+                boolean rolled = hasOpenBar;
+                if (rolled) {
+                    copyOpenBar(changed);
+                    append(openTimestamp, openOpen, openHigh, openLow, openClose, openVolume);
+                }
+                hasOpenBar = true;
+                openTimestamp = minute;
+                openOpen = price;
+                openHigh = price;
+                openLow = price;
+                openClose = price;
+                openVolume = tradeVolume;
+                return rolled ? ROLLED : UPDATED;
+            }
+
+            if (minute == openTimestamp) {
+                openHigh = Math.max(openHigh, price);
+                openLow = Math.min(openLow, price);
+                openClose = price;
+                openVolume += tradeVolume;
+                return UPDATED;
+            }
+
+            // A late trade for a closed minute: fold it in without touching open/close order
+            int i = indexOf(minute);
+            if (i < 0) {
+                return DROPPED;
+            }
+            int slot = physical(i);
+            high[slot] = Math.max(high[slot], price);
+            low[slot] = Math.min(low[slot], price);
+            volume[slot] += tradeVolume;
+            changed.ticker = ticker;
+            changed.timestamp = timestamps[slot];
+            changed.open = open[slot];
+            changed.high = high[slot];
+            changed.low = low[slot];
+            changed.close = close[slot];
+            changed.volume = volume[slot];
+            return REVISED;
+        }
+
+        synchronized void copyOpenBar(Bar bar) {
+            bar.ticker = ticker;
+            bar.timestamp = openTimestamp;
+            bar.open = openOpen;
+            bar.high = openHigh;
+            bar.low = openLow;
+            bar.close = openClose;
+            bar.volume = openVolume;
+        }
+
+        /**
+         * Copies bars with {@code from <= timestamp <= to} into the buffer until it is full, the open bar last.
+         */
+        synchronized void fill(long from, long to, CandleBuffer buffer) {
+            for (int i = lowerBound(from); i < size && !buffer.isFull(); i++) {
+                int slot = physical(i);
+                if (timestamps[slot] > to) {
+                    return;
+                }
+                buffer.accept(null, timestamps[slot], open[slot], high[slot], low[slot], close[slot], volume[slot]);
+            }
+            if (hasOpenBar && !buffer.isFull() && openTimestamp >= from && openTimestamp <= to) {
+                buffer.accept(null, openTimestamp, openOpen, openHigh, openLow, openClose, openVolume);
+            }
+        }
+
+        synchronized void addGap(long from, long to) {
+            gaps.addLast(new long[]{from, to});
+            if (gaps.size() > MAX_GAPS) {
+                gaps.removeFirst();
+            }
+        }
+
+        synchronized boolean overlapsGap(long from, long to) {
+            // Outages older than the window no longer describe any bar
+            long oldest = size > 0 ? timestamps[head] : openTimestamp;
+            while (!gaps.isEmpty() && gaps.peekFirst()[1] < oldest) {
+                gaps.removeFirst();
+            }
+            for (long[] gap : gaps) {
+                if (gap[0] <= to && gap[1] >= from) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void append(long timestamp, long o, long h, long l, long c, long v) {
+            int slot;
+            if (size == timestamps.length) {
+                // Window full: overwrite the oldest bar
+                slot = head;
+                head = (head + 1) % timestamps.length;
+            } else {
+                slot = physical(size);
+                size++;
+            }
+            timestamps[slot] = timestamp;
+            open[slot] = o;
+            high[slot] = h;
+            low[slot] = l;
+            close[slot] = c;
+            volume[slot] = v;
+        }
+
+        private int physical(int logical) {
+            return (head + logical) % timestamps.length;
+        }
+
+        private int indexOf(long timestamp) {
+            int i = lowerBound(timestamp);
+            return i < size && timestamps[physical(i)] == timestamp ? i : -1;
+        }
+
+        private int lowerBound(long key) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (timestamps[physical(mid)] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hts.chart;
+
+import com.opencsv.exceptions.CsvException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves chart data from a memory-mapped {@link CandleSegment}. The segment is built once from the chart CSV
+ * and rebuilt only when the CSV changes, so startup skips parsing and the candles live in the OS page cache
+ * rather than on the Java heap.
+ */
+@Lazy
+@Repository("mmapChartRepository")
+public class MmapChartRepository implements ChartRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(MmapChartRepository.class);
+
+    private final CandleSegment segment;
+
+    public MmapChartRepository(@Value("${app.csv.chart-data-file:국내주식분봉차트v1.csv}") String chartDataFile,
+                               @Value("${app.chart.mmap.file:chart-data.bin}") String segmentFile) {
+        this.segment = openSegment(Path.of(chartDataFile), Path.of(segmentFile));
+    }
+
+    private CandleSegment openSegment(Path csvFile, Path segmentFile) {
+        try {
+            boolean hasSource = Files.exists(csvFile);
+            long sourceLastModified = hasSource ? Files.getLastModifiedTime(csvFile).toMillis() : 0L;
+
+            if (Files.exists(segmentFile)) {
+                CandleSegment existing = CandleSegment.open(segmentFile);
+                if (!hasSource || existing.getSourceLastModified() == sourceLastModified) {
+                    logger.info("Opened candle segment {} with {} tickers", segmentFile, existing.tickers().size());
+                    return existing;
+                }
+            }
+
+            long started = System.nanoTime();
+            CandleSegment.write(segmentFile, sourceLastModified, ChartCsvReader.readSeries(csvFile.toString()));
+            CandleSegment built = CandleSegment.open(segmentFile);
+            logger.info("Built candle segment {} from {} with {} tickers in {} ms", segmentFile, csvFile,
+                    built.tickers().size(), (System.nanoTime() - started) / 1_000_000);
+            return built;
+        } catch (IOException | CsvException e) {
+            logger.error("Failed to open candle segment {}", segmentFile, e);
+            return null;
+        }
+    }
+
+    @Override
+    public List<ChartData> findChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
+        List<ChartData> result = new ArrayList<>();
+        streamChartData(ticker, from, to, interval, ChartAggregator.collectInto(result));
+        return result;
+    }
+
+    @Override
+    public List<ChartData> findByTicker(String ticker) {
+        List<ChartData> result = new ArrayList<>();
+        if (segment != null) {
+            segment.forEach(ticker, Long.MIN_VALUE, Long.MAX_VALUE, ChartAggregator.collectInto(result));
+        }
+        return result;
+    }
+
+    @Override
+    public void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        if (segment == null) {
+            return;
+        }
+        if (interval == null || interval == ChartInterval.ONE_MINUTE) {
+            segment.forEach(ticker, Candle.toEpochMillis(from), Candle.toEpochMillis(to), sink);
+            return;
+        }
+
+        ChartAggregator aggregator = new ChartAggregator(interval, sink);
+        segment.forEach(ticker, interval.bucketStart(Candle.toEpochMillis(from)), Candle.toEpochMillis(to), aggregator);
+        aggregator.finish();
+    }
+}
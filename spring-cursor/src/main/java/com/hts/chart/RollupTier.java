@@ -0,0 +1,167 @@
+package com.hts.chart;
+
+import java.util.Arrays;
+
+/**
+ * Growable, time-sorted candles of one ticker at a single resolution. Each bucket holds at most one candle,
+ * so writing a bucket that already exists replaces it. Not thread-safe; callers synchronize.
+ *
+ * Old candles can be trimmed away to bound memory; the tier then only holds buckets from its {@link #floor}
+ * on and ignores writes before it.
+ */
+final class RollupTier {
+
+    private final ChartInterval interval;
+    private long[] timestamps = new long[64];
+    private long[] open = new long[64];
+    private long[] high = new long[64];
+    private long[] low = new long[64];
+    private long[] close = new long[64];
+    private long[] volume = new long[64];
+    private int size;
+    private long floor = Long.MIN_VALUE;
+
+    RollupTier(ChartInterval interval) {
+        this.interval = interval;
+    }
+
+    ChartInterval getInterval() {
+        return interval;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * The earliest bucket this tier still holds data for; {@link Long#MIN_VALUE} until it is first trimmed.
+     */
+    long floor() {
+        return floor;
+    }
+
+    /**
+     * Writes the candle of the given bucket, appending in the common in-order case and inserting otherwise.
+     * Buckets before the floor are ignored.
+     */
+    void upsert(long bucket, long o, long h, long l, long c, long v) {
+        if (bucket < floor) {
+            return;
+        }
+        int i = lowerBound(bucket);
+        if (i == size || timestamps[i] != bucket) {
+            if (size == timestamps.length) {
+                grow();
+            }
+            if (i < size) {
+                shiftRight(i);
+            }
+            size++;
+        }
+        timestamps[i] = bucket;
+        open[i] = o;
+        high[i] = h;
+        low[i] = l;
+        close[i] = c;
+        volume[i] = v;
+    }
+
+    /**
+     * Recomputes the {@code coarser} tier's bucket containing {@code timestamp} from the candles of this tier.
+     * At most {@code coarser width / this width} candles are read.
+     */
+    void rollInto(RollupTier coarser, long timestamp) {
+        long bucket = coarser.interval.bucketStart(timestamp);
+        if (bucket < floor) {
+            // Part of the bucket has been trimmed here; the coarser candle was built while it was whole
+            return;
+        }
+        int start = lowerBound(bucket);
+        int end = lowerBound(bucket + coarser.interval.getMillis());
+        if (start == end) {
+            return;
+        }
+
+        long h = high[start];
+        long l = low[start];
+        long v = 0;
+        for (int i = start; i < end; i++) {
+            h = Math.max(h, high[i]);
+            l = Math.min(l, low[i]);
+            v += volume[i];
+        }
+        coarser.upsert(bucket, open[start], h, l, close[end - 1], v);
+    }
+
+    /**
+     * Copies candles with {@code from <= timestamp <= to} into the buffer until it is full.
+     */
+    void fill(long from, long to, CandleBuffer buffer) {
+        for (int i = lowerBound(from); i < size && timestamps[i] <= to && !buffer.isFull(); i++) {
+            buffer.accept(null, timestamps[i], open[i], high[i], low[i], close[i], volume[i]);
+        }
+    }
+
+    /**
+     * Drops the candles before {@code bucket} and raises the floor to it.
+     */
+    void trimBefore(long bucket) {
+        int cut = lowerBound(bucket);
+        if (cut > 0) {
+            int length = size - cut;
+            System.arraycopy(timestamps, cut, timestamps, 0, length);
+            System.arraycopy(open, cut, open, 0, length);
+            System.arraycopy(high, cut, high, 0, length);
+            System.arraycopy(low, cut, low, 0, length);
+            System.arraycopy(close, cut, close, 0, length);
+            System.arraycopy(volume, cut, volume, 0, length);
+            size = length;
+        }
+        floor = Math.max(floor, bucket);
+    }
+
+    /**
+     * Drops the candles from {@code bucket} on.
+     */
+    void truncateFrom(long bucket) {
+        size = lowerBound(bucket);
+    }
+
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void shiftRight(int from) {
+        int length = size - from;
+        System.arraycopy(timestamps, from, timestamps, from + 1, length);
+        System.arraycopy(open, from, open, from + 1, length);
+        System.arraycopy(high, from, high, from + 1, length);
+        System.arraycopy(low, from, low, from + 1, length);
+        System.arraycopy(close, from, close, from + 1, length);
+        System.arraycopy(volume, from, volume, from + 1, length);
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+}
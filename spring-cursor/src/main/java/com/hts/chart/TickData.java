@@ -0,0 +1,87 @@
+package com.hts.chart;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One raw trade from the real-time feed. Rows are appended in batches by {@link ChartWriteBehind}; the entity
+ * only declares the table.
+ */
+@Entity
+@Table(name = "tick_data", indexes = {
+        @Index(name = "idx_tick_data_ticker_traded_at", columnList = "ticker, traded_at")
+})
+public class TickData {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String ticker;
+
+    @Column(name = "traded_at", nullable = false)
+    private LocalDateTime tradedAt;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private Long volume;
+
+    @Column(name = "cumulative_value", nullable = false)
+    private Long cumulativeValue;
+
+    public TickData() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public LocalDateTime getTradedAt() {
+        return tradedAt;
+    }
+
+    public void setTradedAt(LocalDateTime tradedAt) {
+        this.tradedAt = tradedAt;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Long getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Long volume) {
+        this.volume = volume;
+    }
+
+    public Long getCumulativeValue() {
+        return cumulativeValue;
+    }
+
+    public void setCumulativeValue(Long cumulativeValue) {
+        this.cumulativeValue = cumulativeValue;
+    }
+}
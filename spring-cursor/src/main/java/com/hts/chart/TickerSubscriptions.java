@@ -0,0 +1,89 @@
+package com.hts.chart;
+
+import com.hts.websocket.KoreaInvestmentWebSocketClient;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Frontend subscriptions indexed by ticker and by session, so a push reaches only the sessions watching its
+ * ticker. A ticker holds one reference on the upstream subscription while it has at least one subscriber.
+ *
+ * Changes are serialized and update both indexes and the upstream reference together. Lookups by ticker are
+ * lock-free and may briefly miss a session that is subscribing or still include one that just left.
+ */
+final class TickerSubscriptions {
+
+    /** Result of {@link #add}. */
+    enum Added { SUBSCRIBED, ALREADY_SUBSCRIBED, UNAVAILABLE }
+
+    private final KoreaInvestmentWebSocketClient tradeFeed;
+    private final ConcurrentMap<String, Set<FrontendSession>> sessionsByTicker = new ConcurrentHashMap<>();
+    // Session id → tickers
+    private final ConcurrentMap<String, Set<String>> tickersBySession = new ConcurrentHashMap<>();
+
+    TickerSubscriptions(KoreaInvestmentWebSocketClient tradeFeed) {
+        this.tradeFeed = tradeFeed;
+    }
+
+    /**
+     * Subscribes the session, taking the upstream subscription if it is the ticker's first subscriber.
+     */
+    synchronized Added add(FrontendSession session, String ticker) {
+        Set<FrontendSession> sessions = sessionsByTicker.get(ticker);
+        if (sessions == null) {
+            if (!tradeFeed.subscribe(ticker)) {
+                return Added.UNAVAILABLE;
+            }
+            sessions = ConcurrentHashMap.newKeySet();
+            sessionsByTicker.put(ticker, sessions);
+        }
+        if (!sessions.add(session)) {
+            return Added.ALREADY_SUBSCRIBED;
+        }
+        tickersBySession.computeIfAbsent(session.getId(), id -> new HashSet<>()).add(ticker);
+        return Added.SUBSCRIBED;
+    }
+
+    /**
+     * Unsubscribes the session, releasing the upstream subscription if it was the ticker's last subscriber.
+     * Returns {@code false} if the session was not subscribed.
+     */
+    synchronized boolean remove(FrontendSession session, String ticker) {
+        Set<String> tickers = tickersBySession.get(session.getId());
+        if (tickers == null || !tickers.remove(ticker)) {
+            return false;
+        }
+        if (tickers.isEmpty()) {
+            tickersBySession.remove(session.getId());
+        }
+        release(session, ticker);
+        return true;
+    }
+
+    /**
+     * Drops every subscription of a closed session.
+     */
+    synchronized void removeSession(FrontendSession session) {
+        Set<String> tickers = tickersBySession.remove(session.getId());
+        if (tickers != null) {
+            tickers.forEach(ticker -> release(session, ticker));
+        }
+    }
+
+    /** Sessions watching the ticker; empty if none. Do not modify. */
+    Set<FrontendSession> subscribers(String ticker) {
+        return sessionsByTicker.getOrDefault(ticker, Collections.emptySet());
+    }
+
+    private void release(FrontendSession session, String ticker) {
+        Set<FrontendSession> sessions = sessionsByTicker.get(ticker);
+        if (sessions != null && sessions.remove(session) && sessions.isEmpty()) {
+            sessionsByTicker.remove(ticker);
+            tradeFeed.unsubscribe(ticker);
+        }
+    }
+}
@@ -7,37 +7,39 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Serves the 1m candles {@link LiveCandleBuilder} builds from the real-time feed. Reads never subscribe: a
+ * ticker is streamed while a {@code /ws/chart} client or the subscriptions API holds it, and a ticker nobody
+ * holds has no live candles to serve.
+ */
 @Repository("webSocketChartRepository")
 public class WebSocketChartRepository implements ChartRepository {
 
     private final KoreaInvestmentWebSocketClient webSocketClient;
+    private final LiveCandleBuilder liveCandles;
 
-    public WebSocketChartRepository(KoreaInvestmentWebSocketClient webSocketClient) {
+    public WebSocketChartRepository(KoreaInvestmentWebSocketClient webSocketClient, LiveCandleBuilder liveCandles) {
         this.webSocketClient = webSocketClient;
+        this.liveCandles = liveCandles;
     }
 
     @Override
     public List<ChartData> findChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
-        // For real-time data, we connect to WebSocket and return empty list
-        // The actual data will be processed by the WebSocket client
-        if (!webSocketClient.isConnected()) {
-            webSocketClient.connect(ticker);
-        }
-
-        // Return empty list as real-time data is handled by WebSocket client
-        return new ArrayList<>();
+        List<ChartData> result = new ArrayList<>();
+        streamChartData(ticker, from, to, interval, ChartAggregator.collectInto(result));
+        return result;
     }
 
     @Override
     public List<ChartData> findByTicker(String ticker) {
-        // For real-time data, we connect to WebSocket and return empty list
-        // The actual data will be processed by the WebSocket client
-        if (!webSocketClient.isConnected()) {
-            webSocketClient.connect(ticker);
-        }
-
-        // Return empty list as real-time data is handled by WebSocket client
-        return new ArrayList<>();
+        List<ChartData> result = new ArrayList<>();
+        liveCandles.forEach(ticker, Long.MIN_VALUE, Long.MAX_VALUE, ChartAggregator.collectInto(result));
+        return result;
+    }
+
+    @Override
+    public void streamChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval, CandleSink sink) {
+        liveCandles.streamChartData(ticker, from, to, interval, sink);
     }
 
     public void disconnect() {
@@ -47,4 +49,4 @@ public class WebSocketChartRepository implements ChartRepository {
     public boolean isConnected() {
         return webSocketClient.isConnected();
     }
-} 
\ No newline at end of file
+}
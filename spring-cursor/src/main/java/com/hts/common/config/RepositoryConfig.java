@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 
 @Configuration
@@ -23,12 +24,14 @@ public class RepositoryConfig {
             @Qualifier("csvChartRepository") ChartRepository csvChartRepository,
             @Qualifier("dbChartRepository") ChartRepository dbChartRepository,
             @Qualifier("httpChartRepository") ChartRepository httpChartRepository,
-            @Qualifier("webSocketChartRepository") ChartRepository webSocketChartRepository) {
+            @Qualifier("webSocketChartRepository") ChartRepository webSocketChartRepository,
+            @Lazy @Qualifier("mmapChartRepository") ChartRepository mmapChartRepository) {
 
         return switch (chartRepositoryType.toLowerCase()) {
             case "db" -> dbChartRepository;
             case "http" -> httpChartRepository;
             case "websocket" -> webSocketChartRepository;
+            case "mmap" -> mmapChartRepository;
             default -> csvChartRepository; // Default to csv
         };
     }
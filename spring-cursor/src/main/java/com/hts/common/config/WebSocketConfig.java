@@ -1,11 +1,14 @@
 package com.hts.common.config;
 
 import com.hts.chart.ChartDataWebSocketHandler;
+import com.hts.simulator.KisFeedSimulator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 @Configuration
 @EnableWebSocket
@@ -13,14 +16,24 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final ChartDataWebSocketHandler chartDataWebSocketHandler;
+    private final ObjectProvider<KisFeedSimulator> feedSimulator;
 
-    public WebSocketConfig(ChartDataWebSocketHandler chartDataWebSocketHandler) {
+    public WebSocketConfig(ChartDataWebSocketHandler chartDataWebSocketHandler,
+                           ObjectProvider<KisFeedSimulator> feedSimulator) {
         this.chartDataWebSocketHandler = chartDataWebSocketHandler;
+        this.feedSimulator = feedSimulator;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Clients pick JSON text or CBOR binary frames by subprotocol; without one they get JSON
+        DefaultHandshakeHandler chartHandshake = new DefaultHandshakeHandler();
+        chartHandshake.setSupportedProtocols(ChartDataWebSocketHandler.SUBPROTOCOLS.toArray(String[]::new));
         registry.addHandler(chartDataWebSocketHandler, "/ws/chart")
+                .setHandshakeHandler(chartHandshake)
                 .setAllowedOrigins("*");
+        // Present only with app.simulator.enabled=true
+        feedSimulator.ifAvailable(simulator -> registry.addHandler(simulator, "/sim/kis")
+                .setAllowedOrigins("*"));
     }
 } 
\ No newline at end of file
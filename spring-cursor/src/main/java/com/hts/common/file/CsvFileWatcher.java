@@ -0,0 +1,169 @@
+package com.hts.common.file;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads CSV data sources and, when {@code app.csv.watch.enabled} is set, reloads them in the background
+ * whenever their file changes.
+ *
+ * A source's loader parses the file into a new snapshot, swaps it in and returns the row count; a loader
+ * that throws leaves the previous snapshot in place. Every load is logged and recorded as the
+ * {@code csv.reload} timer and {@code csv.rows} gauge, tagged with the source name.
+ */
+@Component
+public class CsvFileWatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvFileWatcher.class);
+
+    /** Editors and copy tools emit several events per save; wait for this much quiet before reloading. */
+    private static final long SETTLE_MILLIS = 500;
+
+    /**
+     * Parses a file into a new snapshot and swaps it in.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /** Returns the number of rows loaded. */
+        int load() throws Exception;
+    }
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Map<Path, Source> sources = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public CsvFileWatcher(@Value("${app.csv.watch.enabled:false}") boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the initial load on the calling thread, then reruns it on the watcher thread after each change.
+     */
+    public void register(String name, String file, Loader loader) {
+        Path path = Path.of(file).toAbsolutePath().normalize();
+        Source source = new Source(name, path, loader);
+        source.load();
+
+        if (enabled) {
+            sources.put(path, source);
+            watchDirectory(path.getParent());
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private synchronized void watchDirectory(Path directory) {
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                watchThread = new Thread(this::watchLoop, "csv-file-watcher");
+                watchThread.setDaemon(true);
+                watchThread.start();
+            }
+            // Registering the same directory twice returns the existing key
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.error("Cannot watch {} for CSV changes", directory, e);
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                collect(watchService.take(), changed);
+
+                // Fold the burst of events from one save into a single reload per file
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                for (Path path : changed) {
+                    Source source = sources.get(path);
+                    if (source != null) {
+                        source.load();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+    }
+
+    private final class Source {
+
+        private final String name;
+        private final Path path;
+        private final Loader loader;
+        private final Timer timer;
+        private final AtomicLong rows = new AtomicLong();
+
+        Source(String name, Path path, Loader loader) {
+            this.name = name;
+            this.path = path;
+            this.loader = loader;
+            this.timer = Timer.builder("csv.reload")
+                    .description("Time to parse a CSV data source and swap in the new snapshot")
+                    .tag("source", name)
+                    .register(meterRegistry);
+            meterRegistry.gauge("csv.rows", Tags.of("source", name), rows, AtomicLong::get);
+        }
+
+        void load() {
+            long start = System.nanoTime();
+            try {
+                int count = loader.load();
+                long elapsed = System.nanoTime() - start;
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+                rows.set(count);
+                logger.info("Loaded {} rows of {} from {} in {} ms",
+                        count, name, path, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            } catch (Exception e) {
+                logger.error("Error loading {} from {}; keeping the previous data", name, path, e);
+            }
+        }
+    }
+}
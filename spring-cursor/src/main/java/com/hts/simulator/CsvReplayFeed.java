@@ -0,0 +1,38 @@
+package com.hts.simulator;
+
+import com.hts.chart.ChartCsvReader;
+import com.hts.chart.ChartInterval;
+
+/**
+ * Replays a minute-chart CSV export as trades. Each bar becomes four trades 15 seconds apart: the open, the
+ * extreme nearer to it (the low for a rising bar), the other extreme and the close, with the bar's volume
+ * split between them, so candles rebuilt from the feed match the file.
+ */
+final class CsvReplayFeed implements SimulatedFeed {
+
+    private static final long STEP_MILLIS = 15_000;
+
+    private final String file;
+
+    CsvReplayFeed(String file) {
+        this.file = file;
+    }
+
+    @Override
+    public void play(Trades out) throws Exception {
+        ChartCsvReader.readTimeOrdered(file, (ticker, timestamp, open, high, low, close, volume) -> {
+            long minute = ChartInterval.ONE_MINUTE.bucketStart(timestamp);
+            boolean rising = close >= open;
+            long part = volume / 4;
+            out.trade(ticker, minute, open, part);
+            out.trade(ticker, minute + STEP_MILLIS, rising ? low : high, part);
+            out.trade(ticker, minute + 2 * STEP_MILLIS, rising ? high : low, part);
+            out.trade(ticker, minute + 3 * STEP_MILLIS, close, volume - 3 * part);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "csv replay of " + file;
+    }
+}
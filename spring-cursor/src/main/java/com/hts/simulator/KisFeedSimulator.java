@@ -0,0 +1,282 @@
+package com.hts.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hts.chart.Candle;
+import com.hts.websocket.TradeFrameParser;
+import com.hts.websocket.TradeFrameWriter;
+import com.hts.websocket.dto.WebSocketRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stands in for the KIS real-time endpoint so the trade pipeline can be driven offline: point
+ * {@code korea.investment.websocket.url} at this handler and it answers {@code H0STCNT0} register and
+ * deregister requests and pushes trade frames for the subscribed tickers.
+ *
+ * Trades come from a minute-chart CSV ({@code source=csv}) or a seeded random walk ({@code source=random}) and
+ * are played on one thread at {@code speed} times real time. Gaps longer than a minute in simulated time, such
+ * as nights between trading days, are shortened to a minute. Trades for tickers nobody subscribes to are
+ * paced but not sent. Every connected session also gets a {@code PINGPONG} heartbeat every 10 seconds.
+ */
+@Component
+@ConditionalOnProperty(name = "app.simulator.enabled", havingValue = "true")
+public class KisFeedSimulator extends TextWebSocketHandler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(KisFeedSimulator.class);
+
+    private static final long MAX_GAP_MILLIS = 60_000;
+    private static final long HEARTBEAT_SECONDS = 10;
+    private static final DateTimeFormatter HEARTBEAT_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final long ONE_WON = Candle.toFixed(BigDecimal.ONE);
+
+    private final ObjectMapper objectMapper;
+    private final SimulatedFeed feed;
+    private final double speed;
+    private final boolean loop;
+    private final ConcurrentMap<String, Set<WebSocketSession>> subscribers = new ConcurrentHashMap<>();
+    private final Set<WebSocketSession> connected = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kis-simulator-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+    private Thread player;
+
+    // Player thread only
+    private final TradeFrameWriter frameWriter = new TradeFrameWriter();
+    private final Map<String, TradingDay> days = new HashMap<>();
+    private long wallStart;
+    private long simulatedElapsed;
+    private long latestTimestamp = Long.MIN_VALUE;
+    private long trades;
+
+    public KisFeedSimulator(ObjectMapper objectMapper,
+                            @Value("${app.simulator.source:csv}") String source,
+                            @Value("${app.simulator.csv-file:${app.csv.chart-data-file:국내주식분봉차트v1.csv}}") String csvFile,
+                            @Value("${app.simulator.speed:1}") double speed,
+                            @Value("${app.simulator.loop:true}") boolean loop,
+                            @Value("${app.simulator.random.tickers:10}") int randomTickers,
+                            @Value("${app.simulator.random.trade-interval-ms:1000}") long tradeIntervalMillis,
+                            @Value("${app.simulator.random.seed:42}") long seed) {
+        if (speed < 1 || speed > 1000) {
+            throw new IllegalArgumentException("app.simulator.speed must be between 1 and 1000: " + speed);
+        }
+        this.objectMapper = objectMapper;
+        this.speed = speed;
+        this.loop = loop;
+        this.feed = "random".equalsIgnoreCase(source)
+                ? new RandomWalkFeed(randomTickers, tradeIntervalMillis, seed)
+                : new CsvReplayFeed(csvFile);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        WebSocketRequest request = objectMapper.readValue(message.getPayload(), WebSocketRequest.class);
+        if (request.getHeader() == null || request.getBody() == null || request.getBody().getInput() == null) {
+            logger.warn("Ignoring malformed simulator request: {}", message.getPayload());
+            return;
+        }
+        String trId = request.getBody().getInput().getTrId();
+        String ticker = request.getBody().getInput().getTrKey();
+        if (!TradeFrameParser.TR_ID.equals(trId) || ticker == null) {
+            reply(session, trId, ticker, "1", "OPSP8996", "UNSUPPORTED TR_ID");
+            return;
+        }
+
+        if (WebSocketRequest.DEREGISTER.equals(request.getHeader().getTrType())) {
+            Set<WebSocketSession> sessions = subscribers.get(ticker);
+            if (sessions != null) {
+                sessions.remove(session);
+            }
+            reply(session, trId, ticker, "0", "OPSP0001", "UNSUBSCRIBE SUCCESS");
+        } else {
+            subscribers.computeIfAbsent(ticker, key -> ConcurrentHashMap.newKeySet()).add(session);
+            reply(session, trId, ticker, "0", "OPSP0000", "SUBSCRIBE SUCCESS");
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        connected.add(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connected.remove(session);
+        subscribers.values().forEach(sessions -> sessions.remove(session));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        player = new Thread(this::play, "kis-simulator");
+        player.setDaemon(true);
+        player.start();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        logger.info("KIS feed simulator playing {} at {}x", feed, speed);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        heartbeat.shutdownNow();
+        player.interrupt();
+        try {
+            player.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void play() {
+        try {
+            do {
+                feed.play(this::trade);
+                logger.info("KIS feed simulator finished a pass of {} after {} trades", feed, trades);
+            } while (loop && running);
+        } catch (CancellationException e) {
+            // Stopped
+        } catch (Exception e) {
+            logger.error("KIS feed simulator failed playing {}", feed, e);
+        }
+    }
+
+    private void trade(String ticker, long timestamp, long price, long volume) {
+        if (!running) {
+            throw new CancellationException();
+        }
+        pace(timestamp);
+        trades++;
+
+        LocalDateTime time = Candle.toLocalDateTime(timestamp);
+        int businessDate = time.getYear() * 10000 + time.getMonthValue() * 100 + time.getDayOfMonth();
+        TradingDay day = days.computeIfAbsent(ticker, key -> new TradingDay());
+        day.apply(businessDate, price, volume);
+
+        Set<WebSocketSession> sessions = subscribers.get(ticker);
+        if (sessions == null || sessions.isEmpty()) {
+            return;
+        }
+        int tradeTime = time.getHour() * 10000 + time.getMinute() * 100 + time.getSecond();
+        TextMessage frame = new TextMessage(frameWriter.write(ticker, businessDate, tradeTime, price,
+                price - day.reference, day.open, day.high, day.low, volume, day.cumulativeVolume, day.cumulativeValue));
+        for (WebSocketSession session : sessions) {
+            send(session, frame);
+        }
+    }
+
+    /**
+     * Waits until the trade is due. Simulated time only moves forward with the latest timestamp seen, so
+     * trades that arrive slightly out of order across tickers are sent at once.
+     */
+    private void pace(long timestamp) {
+        if (latestTimestamp == Long.MIN_VALUE) {
+            wallStart = System.nanoTime();
+            latestTimestamp = timestamp;
+        } else if (timestamp > latestTimestamp) {
+            simulatedElapsed += Math.min(timestamp - latestTimestamp, MAX_GAP_MILLIS);
+            latestTimestamp = timestamp;
+        } else if (timestamp < latestTimestamp - MAX_GAP_MILLIS) {
+            // The feed started over; carry on from here
+            latestTimestamp = timestamp;
+        }
+
+        long due = wallStart + (long) (simulatedElapsed * 1_000_000L / speed);
+        long wait;
+        while (running && (wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private void sendHeartbeats() {
+        TextMessage ping = new TextMessage("{\"header\":{\"tr_id\":\"PINGPONG\",\"datetime\":\""
+                + LocalDateTime.now().format(HEARTBEAT_TIME) + "\"}}");
+        connected.forEach(session -> send(session, ping));
+    }
+
+    private void reply(WebSocketSession session, String trId, String ticker, String resultCode, String messageCode,
+                       String text) throws IOException {
+        Map<String, Object> header = new HashMap<>();
+        header.put("tr_id", trId);
+        header.put("tr_key", ticker);
+        header.put("encrypt", "N");
+        Map<String, Object> body = Map.of("rt_cd", resultCode, "msg_cd", messageCode, "msg1", text);
+        send(session, new TextMessage(objectMapper.writeValueAsString(Map.of("header", header, "body", body))));
+    }
+
+    private static void send(WebSocketSession session, TextMessage message) {
+        // Replies go out on request threads and trades on the player thread
+        synchronized (session) {
+            if (!session.isOpen()) {
+                return;
+            }
+            try {
+                session.sendMessage(message);
+            } catch (IOException e) {
+                logger.debug("Simulator send to session {} failed", session.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Day open, high, low and accumulated volume and value for one ticker, as the real feed reports them. Changes
+     * are quoted against the previous day's last price, or the open on the first simulated day.
+     */
+    private static final class TradingDay {
+
+        int businessDate;
+        long reference;
+        long last;
+        long open;
+        long high;
+        long low;
+        long cumulativeVolume;
+        long cumulativeValue;
+
+        void apply(int date, long price, long volume) {
+            if (date != businessDate) {
+                reference = businessDate == 0 ? price : last;
+                businessDate = date;
+                open = price;
+                high = price;
+                low = price;
+                cumulativeVolume = 0;
+                cumulativeValue = 0;
+            }
+            last = price;
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            cumulativeVolume += volume;
+            cumulativeValue += price / ONE_WON * volume;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hts.simulator;
+
+import com.hts.chart.Candle;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Endless synthetic trades for tickers {@code 900000}, {@code 900001}, ...: every ticker trades once per
+ * interval, staggered across it, moving its price by at most one 0.1% step. Seeded, so runs are repeatable.
+ * Simulated time starts at 09:00 today.
+ */
+final class RandomWalkFeed implements SimulatedFeed {
+
+    private static final int FIRST_TICKER = 900_000;
+    private static final int MAX_TICKERS = 100_000;
+    private static final long ONE_WON = Candle.toFixed(BigDecimal.ONE);
+
+    private final int tickerCount;
+    private final long intervalMillis;
+    private final long seed;
+
+    RandomWalkFeed(int tickerCount, long intervalMillis, long seed) {
+        if (tickerCount < 1 || tickerCount > MAX_TICKERS) {
+            throw new IllegalArgumentException("Random feed ticker count must be between 1 and " + MAX_TICKERS + ": " + tickerCount);
+        }
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Random feed trade interval must be positive: " + intervalMillis);
+        }
+        this.tickerCount = tickerCount;
+        this.intervalMillis = intervalMillis;
+        this.seed = seed;
+    }
+
+    @Override
+    public void play(Trades out) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] tickers = new String[tickerCount];
+        long[] prices = new long[tickerCount];
+        for (int i = 0; i < tickerCount; i++) {
+            tickers[i] = Integer.toString(FIRST_TICKER + i);
+            prices[i] = (10_000 + random.nextInt(90_001)) * ONE_WON;
+        }
+
+        long start = Candle.toEpochMillis(LocalDate.now().atTime(9, 0));
+        for (long step = 0; ; step++) {
+            long stepStart = start + step * intervalMillis;
+            for (int i = 0; i < tickerCount; i++) {
+                // 0.1% of the price in whole won, at least one won
+                long tick = Math.max(ONE_WON, prices[i] / 1000 / ONE_WON * ONE_WON);
+                prices[i] = Math.max(tick, prices[i] + (random.nextInt(3) - 1) * tick);
+                out.trade(tickers[i], stepStart + i * intervalMillis / tickerCount, prices[i], 1 + random.nextInt(500));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "random walk over " + tickerCount + " tickers";
+    }
+}
@@ -0,0 +1,20 @@
+package com.hts.simulator;
+
+/**
+ * A source of simulated trades, played in time order by {@link KisFeedSimulator}.
+ */
+interface SimulatedFeed {
+
+    /**
+     * Emits trades until the feed is exhausted. Timestamps are local epoch millis and prices use the
+     * {@link com.hts.chart.Candle} fixed-point encoding.
+     */
+    void play(Trades out) throws Exception;
+
+    @FunctionalInterface
+    interface Trades {
+
+        /** Blocks until the trade is due at the simulation speed. */
+        void trade(String ticker, long timestamp, long price, long volume);
+    }
+}
@@ -1,5 +1,6 @@
 package com.hts.stock;
 
+import com.hts.common.file.CsvFileWatcher;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,15 +21,16 @@ import java.util.stream.Collectors;
 public class CsvStockRepository implements StockRepository {
 
     private final String stockDataFile;
-    private List<Stock> stockCache;
+    // Immutable snapshot, replaced as a whole on reload; read it once per call
+    private volatile List<Stock> stockCache = List.of();
 
-    public CsvStockRepository(@Value("${app.csv.stock-data-file}") String stockDataFile) {
+    public CsvStockRepository(@Value("${app.csv.stock-data-file}") String stockDataFile, CsvFileWatcher fileWatcher) {
         this.stockDataFile = stockDataFile;
-        loadStockData();
+        fileWatcher.register("stocks", stockDataFile, this::loadStockData);
     }
 
-    private void loadStockData() {
-        stockCache = new ArrayList<>();
+    private int loadStockData() throws IOException, CsvException {
+        List<Stock> stocks = new ArrayList<>();
         try (CSVReader reader = new CSVReader(new FileReader(stockDataFile))) {
             List<String[]> rows = reader.readAll();
             // Skip header row
@@ -42,13 +44,12 @@ public class CsvStockRepository implements StockRepository {
                             parseBigDecimal(row[8]), // PER
                             parseBigDecimal(row[9])  // PBR
                     );
-                    stockCache.add(stock);
+                    stocks.add(stock);
                 }
             }
-        } catch (IOException | CsvException e) {
-            // In a real application, you'd use a logger
-            System.err.println("Error loading stock data: " + e.getMessage());
         }
+        stockCache = List.copyOf(stocks);
+        return stocks.size();
     }
 
     @Override
@@ -70,12 +71,13 @@ public class CsvStockRepository implements StockRepository {
 
     @Override
     public Page<Stock> findAll(Pageable pageable) {
+        List<Stock> stocks = stockCache;
         int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), stockCache.size());
+        int end = Math.min((start + pageable.getPageSize()), stocks.size());
 
-        List<Stock> sublist = stockCache.subList(start, end);
+        List<Stock> sublist = stocks.subList(start, end);
 
-        return new PageImpl<>(sublist, pageable, stockCache.size());
+        return new PageImpl<>(sublist, pageable, stocks.size());
     }
 
     private BigDecimal parseBigDecimal(String value) {
@@ -0,0 +1,77 @@
+package com.hts.stock;
+
+import com.hts.chart.Candle;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of a ticker's latest trade. Prices use the {@link Candle} fixed-point encoding and are
+ * converted only when read.
+ */
+public final class Quote {
+
+    private final String ticker;
+    private final long price;
+    private final long change;
+    private final long open;
+    private final long high;
+    private final long low;
+    private final long volume;
+    private final long tradedAt;
+
+    public Quote(String ticker, long price, long change, long open, long high, long low, long volume, long tradedAt) {
+        this.ticker = ticker;
+        this.price = price;
+        this.change = change;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.volume = volume;
+        this.tradedAt = tradedAt;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public BigDecimal getPrice() {
+        return Candle.toDecimal(price);
+    }
+
+    /** Change against the previous day's close. */
+    public BigDecimal getChange() {
+        return Candle.toDecimal(change);
+    }
+
+    /** Change against the previous day's close, in percent. */
+    public BigDecimal getChangeRate() {
+        long previousClose = price - change;
+        if (previousClose == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(change * 100).divide(BigDecimal.valueOf(previousClose), 2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getOpen() {
+        return Candle.toDecimal(open);
+    }
+
+    public BigDecimal getHigh() {
+        return Candle.toDecimal(high);
+    }
+
+    public BigDecimal getLow() {
+        return Candle.toDecimal(low);
+    }
+
+    /** Volume traded so far today. */
+    public long getVolume() {
+        return volume;
+    }
+
+    public LocalDateTime getTradedAt() {
+        return Candle.toLocalDateTime(tradedAt);
+    }
+}
@@ -0,0 +1,95 @@
+package com.hts.stock;
+
+import com.hts.chart.LiveCandleBuilder;
+import com.hts.websocket.TickConsumer;
+import com.hts.websocket.TradeTick;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latest quote per ticker, kept current from the tick pipeline.
+ *
+ * Each ticker maps to an immutable {@link Quote} that the stage thread replaces as a whole, so readers get a
+ * consistent snapshot from a plain map lookup without locking. Within a batch only the last trade per ticker
+ * matters, so a new quote is published once per ticker at the end of each batch.
+ */
+@Component
+public class QuoteBoard implements TickConsumer {
+
+    private final ConcurrentMap<String, Quote> quotes = new ConcurrentHashMap<>();
+    // Stage thread only
+    private final Map<String, Latest> latestByTicker = new HashMap<>();
+    private final List<Latest> dirty = new ArrayList<>();
+
+    @Override
+    public String getStageName() {
+        return "quotes";
+    }
+
+    @Override
+    public void onTick(TradeTick tick) {
+        Latest latest = latestByTicker.computeIfAbsent(tick.getTicker(), Latest::new);
+        latest.update(tick);
+        if (!latest.dirty) {
+            latest.dirty = true;
+            dirty.add(latest);
+        }
+    }
+
+    @Override
+    public void onBatchEnd() {
+        for (Latest latest : dirty) {
+            latest.dirty = false;
+            quotes.put(latest.ticker, latest.toQuote());
+        }
+        dirty.clear();
+    }
+
+    /**
+     * The latest quote, or {@code null} when the ticker has not traded since startup.
+     */
+    public Quote getQuote(String ticker) {
+        return quotes.get(ticker);
+    }
+
+    /** Mutable copy of a ticker's last trade in the current batch. */
+    private static final class Latest {
+
+        final String ticker;
+        long price;
+        long change;
+        long open;
+        long high;
+        long low;
+        long volume;
+        int businessDate;
+        int tradeTime;
+        boolean dirty;
+
+        Latest(String ticker) {
+            this.ticker = ticker;
+        }
+
+        void update(TradeTick tick) {
+            price = tick.getPrice();
+            change = tick.getChange();
+            open = tick.getOpen();
+            high = tick.getHigh();
+            low = tick.getLow();
+            volume = tick.getCumulativeVolume();
+            businessDate = tick.getBusinessDate();
+            tradeTime = tick.getTradeTime();
+        }
+
+        Quote toQuote() {
+            return new Quote(ticker, price, change, open, high, low, volume,
+                    LiveCandleBuilder.toEpochMillis(businessDate, tradeTime));
+        }
+    }
+}
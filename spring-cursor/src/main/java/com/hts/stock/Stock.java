@@ -48,6 +48,13 @@ public class Stock {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Live values from the quote board; not stored
+    @Transient
+    private BigDecimal priceChange;
+
+    @Transient
+    private Long volume;
+
     public Stock() {}
 
     public Stock(String ticker, String name, BigDecimal currentPrice, BigDecimal per, BigDecimal pbr) {
@@ -138,4 +145,20 @@ public class Stock {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-} 
\ No newline at end of file
+
+    public BigDecimal getPriceChange() {
+        return priceChange;
+    }
+
+    public void setPriceChange(BigDecimal priceChange) {
+        this.priceChange = priceChange;
+    }
+
+    public Long getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Long volume) {
+        this.volume = volume;
+    }
+}
@@ -36,6 +36,9 @@ public class StockListResponse {
         private String tradeDate;
         private String tradeTime;
         private String currentPrice;
+        private String priceChange;
+        private String changeRate;
+        private Long volume;
 
         public StockListItem() {}
 
@@ -87,6 +90,30 @@ public class StockListResponse {
         public void setCurrentPrice(String currentPrice) {
             this.currentPrice = currentPrice;
         }
+
+        public String getPriceChange() {
+            return priceChange;
+        }
+
+        public void setPriceChange(String priceChange) {
+            this.priceChange = priceChange;
+        }
+
+        public String getChangeRate() {
+            return changeRate;
+        }
+
+        public void setChangeRate(String changeRate) {
+            this.changeRate = changeRate;
+        }
+
+        public Long getVolume() {
+            return volume;
+        }
+
+        public void setVolume(Long volume) {
+            this.volume = volume;
+        }
     }
 
     public static class PaginationInfo {
@@ -8,6 +8,9 @@ public class StockSearchResponse {
     private BigDecimal currentPrice;
     private BigDecimal per;
     private BigDecimal pbr;
+    private BigDecimal priceChange;
+    private BigDecimal changeRate;
+    private Long volume;
 
     public StockSearchResponse() {}
 
@@ -59,4 +62,28 @@ public class StockSearchResponse {
     public void setPbr(BigDecimal pbr) {
         this.pbr = pbr;
     }
-} 
\ No newline at end of file
+
+    public BigDecimal getPriceChange() {
+        return priceChange;
+    }
+
+    public void setPriceChange(BigDecimal priceChange) {
+        this.priceChange = priceChange;
+    }
+
+    public BigDecimal getChangeRate() {
+        return changeRate;
+    }
+
+    public void setChangeRate(BigDecimal changeRate) {
+        this.changeRate = changeRate;
+    }
+
+    public Long getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Long volume) {
+        this.volume = volume;
+    }
+}
@@ -19,9 +19,11 @@ import java.util.stream.Collectors;
 public class StockService {
 
     private final StockRepository stockRepository;
+    private final QuoteBoard quoteBoard;
 
-    public StockService(StockRepository stockRepository) {
+    public StockService(StockRepository stockRepository, QuoteBoard quoteBoard) {
         this.stockRepository = stockRepository;
+        this.quoteBoard = quoteBoard;
     }
 
     public List<StockSearchResponse> searchStocks(String keyword) {
@@ -49,25 +51,65 @@ public class StockService {
         return new StockListResponse(stockItems, paginationInfo);
     }
 
+    /**
+     * The stock with its live price, change and volume when it has traded since startup. A live stock is a
+     * detached copy, so the overlay never reaches the database.
+     */
     public Stock getStockByTicker(String ticker) {
-        return stockRepository.findByTicker(ticker)
+        Stock stock = stockRepository.findByTicker(ticker)
                 .orElseThrow(() -> new StockNotFoundException("Stock not found with ticker: " + ticker));
+        Quote quote = quoteBoard.getQuote(ticker);
+        if (quote == null) {
+            return stock;
+        }
+
+        Stock live = new Stock(stock.getTicker(), stock.getName(), quote.getPrice(), stock.getPer(), stock.getPbr());
+        live.setId(stock.getId());
+        live.setTradeDate(quote.getTradedAt().toLocalDate());
+        live.setTradeTime(quote.getTradedAt().toLocalTime());
+        live.setCreatedAt(stock.getCreatedAt());
+        live.setUpdatedAt(stock.getUpdatedAt());
+        live.setPriceChange(quote.getChange());
+        live.setVolume(quote.getVolume());
+        return live;
     }
 
     private StockSearchResponse convertToResponse(Stock stock) {
-        return new StockSearchResponse(
+        Quote quote = quoteBoard.getQuote(stock.getTicker());
+        StockSearchResponse response = new StockSearchResponse(
                 stock.getTicker(),
                 stock.getName(),
-                stock.getCurrentPrice(),
+                quote != null ? quote.getPrice() : stock.getCurrentPrice(),
                 stock.getPer(),
                 stock.getPbr()
         );
+        if (quote != null) {
+            response.setPriceChange(quote.getChange());
+            response.setChangeRate(quote.getChangeRate());
+            response.setVolume(quote.getVolume());
+        }
+        return response;
     }
 
     private StockListResponse.StockListItem convertToStockListItem(Stock stock) {
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
 
+        Quote quote = quoteBoard.getQuote(stock.getTicker());
+        if (quote != null) {
+            StockListResponse.StockListItem item = new StockListResponse.StockListItem(
+                    stock.getName(),
+                    stock.getTicker(),
+                    quote.getTradedAt().format(dateFormatter),
+                    quote.getTradedAt().format(timeFormatter),
+                    quote.getPrice().toString()
+            );
+            item.setPriceChange(quote.getChange().toString());
+            item.setChangeRate(quote.getChangeRate().toString());
+            item.setVolume(quote.getVolume());
+            return item;
+        }
+
         String tradeDate = stock.getTradeDate() != null ? stock.getTradeDate().format(dateFormatter) : null;
         String tradeTime = stock.getTradeTime() != null ? stock.getTradeTime().format(timeFormatter) : null;
         String currentPrice = stock.getCurrentPrice() != null ? stock.getCurrentPrice().toString() : "0";
@@ -0,0 +1,12 @@
+package com.hts.websocket;
+
+/**
+ * Lifecycle of one upstream session: {@code CONNECTING → OPEN → BACKING_OFF → CONNECTING ...} until it is
+ * closed on purpose.
+ */
+public enum ConnectionState {
+    CONNECTING,
+    OPEN,
+    BACKING_OFF,
+    CLOSED
+}
@@ -0,0 +1,16 @@
+package com.hts.websocket;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * An upstream outage: the tickers that were streaming when the session went down, from the last data received
+ * to the moment their subscriptions were restored. Trades in between were never seen.
+ */
+public record FeedGap(Set<String> tickers, LocalDateTime from, LocalDateTime to) {
+
+    public Duration duration() {
+        return Duration.between(from, to);
+    }
+}
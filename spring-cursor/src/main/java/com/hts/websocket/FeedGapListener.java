@@ -0,0 +1,10 @@
+package com.hts.websocket;
+
+/**
+ * Told about every upstream outage once the affected session is back.
+ */
+@FunctionalInterface
+public interface FeedGapListener {
+
+    void onGap(FeedGap gap);
+}
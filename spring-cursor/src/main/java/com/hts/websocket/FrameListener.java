@@ -0,0 +1,10 @@
+package com.hts.websocket;
+
+/**
+ * Sees every raw upstream data frame before it is decoded, on the session's receiving thread.
+ */
+@FunctionalInterface
+public interface FrameListener {
+
+    void onFrame(String frame);
+}
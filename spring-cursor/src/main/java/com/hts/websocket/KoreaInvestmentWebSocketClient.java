@@ -1,10 +1,9 @@
 // This is the WebSocket client for Korea Investment & Securities
 package com.hts.websocket;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hts.websocket.dto.RealTimeTradeData;
 import com.hts.websocket.dto.WebSocketRequest;
+import jakarta.annotation.PreDestroy;
 import jakarta.websocket.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,170 +11,541 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Multiplexes real-time trade ({@code H0STCNT0}) subscriptions for many tickers over a small pool of upstream
+ * sessions.
+ *
+ * Each ticker is reference counted: the first {@link #subscribe} registers it upstream and the matching last
+ * {@link #unsubscribe} deregisters it. A session carries up to {@code max-subscriptions-per-session} tickers and
+ * re-registers all of them whenever it (re)connects.
+ *
+ * A session that closes, errors or goes quiet for longer than the heartbeat timeout (a half-open socket) is
+ * reconnected with jittered exponential backoff. {@code PINGPONG} heartbeats are echoed back as KIS expects.
+ * Each outage is recorded as a {@link FeedGap} and passed to gap listeners once the session is back.
+ *
+ * {@link #disconnect} closes every session but keeps the subscriber counts, so downstream holders keep their
+ * references; {@link #connect} opens sessions for all of them again.
+ */
 @Service
 public class KoreaInvestmentWebSocketClient {
 
     private static final Logger logger = LoggerFactory.getLogger(KoreaInvestmentWebSocketClient.class);
-    private static final String WEBSOCKET_URL = "wss://openapi.koreainvestment.com:9443/websocket";
+
+    private static final String HEARTBEAT_TR_ID = "\"PINGPONG\"";
+    private static final int MAX_RECENT_GAPS = 100;
 
     @Value("${korea.investment.approval.key:}")
     private String approvalKey;
 
     private final ObjectMapper objectMapper;
-    private Session webSocketSession;
+    private final URI websocketUrl;
     private final ScheduledExecutorService reconnectExecutor;
-    private String currentTicker;
-    private boolean isConnected = false;
+    private final int maxSessions;
+    private final int maxSubscriptionsPerSession;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long heartbeatTimeoutMillis;
+    private final List<TradeTickListener> tickListeners = new CopyOnWriteArrayList<>();
+    private final TradeTickListener dispatcher = this::dispatch;
+    private final List<FeedGapListener> gapListeners = new CopyOnWriteArrayList<>();
+    private final List<FrameListener> frameListeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final Map<String, Integer> subscriberCounts = new HashMap<>();
+    private final List<UpstreamSession> sessions = new ArrayList<>();
+    private final Deque<FeedGap> recentGaps = new ArrayDeque<>();
+    private boolean disconnected;
 
-    public KoreaInvestmentWebSocketClient(ObjectMapper objectMapper) {
+    public KoreaInvestmentWebSocketClient(
+            ObjectMapper objectMapper,
+            @Value("${korea.investment.websocket.url:wss://openapi.koreainvestment.com:9443/websocket}") String websocketUrl,
+            @Value("${korea.investment.websocket.max-sessions:1}") int maxSessions,
+            @Value("${korea.investment.websocket.max-subscriptions-per-session:41}") int maxSubscriptionsPerSession,
+            @Value("${korea.investment.websocket.reconnect.initial-backoff-ms:1000}") long initialBackoffMillis,
+            @Value("${korea.investment.websocket.reconnect.max-backoff-ms:60000}") long maxBackoffMillis,
+            @Value("${korea.investment.websocket.heartbeat-timeout-ms:60000}") long heartbeatTimeoutMillis) {
         this.objectMapper = objectMapper;
-        this.reconnectExecutor = Executors.newSingleThreadScheduledExecutor();
-    }
+        this.websocketUrl = URI.create(websocketUrl);
+        this.reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kis-websocket-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxSessions = maxSessions;
+        this.maxSubscriptionsPerSession = maxSubscriptionsPerSession;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
 
-    public void connect(String ticker) {
-        this.currentTicker = ticker;
+        long checkMillis = Math.max(1000, heartbeatTimeoutMillis / 4);
+        reconnectExecutor.scheduleWithFixedDelay(this::checkHeartbeats, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * Adds a subscriber for the ticker, registering it upstream if it is the first one. Returns {@code false}
+     * when the ticker cannot be carried because every session is full or no approval key is configured. While
+     * disconnected the ticker is only counted, and registered on {@link #connect}.
+     */
+    public synchronized boolean subscribe(String ticker) {
         if (approvalKey == null || approvalKey.trim().isEmpty()) {
             logger.error("Approval key is not configured. Please set korea.investment.approval.key in application properties.");
-            return;
+            return false;
         }
 
-        try {
-            WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-            webSocketSession = container.connectToServer(new WebSocketClientEndpoint(), new URI(WEBSOCKET_URL));
+        Integer count = subscriberCounts.get(ticker);
+        if (count != null) {
+            subscriberCounts.put(ticker, count + 1);
+            return true;
+        }
 
-        } catch (Exception e) {
-            logger.error("Failed to create WebSocket connection", e);
+        boolean carried = disconnected
+                ? subscriberCounts.size() < maxSessions * maxSubscriptionsPerSession
+                : place(ticker);
+        if (!carried) {
+            logger.warn("Cannot subscribe to {}: all {} sessions carry {} tickers", ticker, maxSessions, maxSubscriptionsPerSession);
+            return false;
         }
+        subscriberCounts.put(ticker, 1);
+        return true;
     }
 
-    public void disconnect() {
-        if (webSocketSession != null && webSocketSession.isOpen()) {
-            try {
-                webSocketSession.close();
-            } catch (IOException e) {
-                logger.error("Error closing WebSocket session", e);
+    /**
+     * Removes a subscriber for the ticker, deregistering it upstream once nobody watches it.
+     */
+    public synchronized void unsubscribe(String ticker) {
+        Integer count = subscriberCounts.get(ticker);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            subscriberCounts.put(ticker, count - 1);
+            return;
+        }
+
+        subscriberCounts.remove(ticker);
+        for (UpstreamSession session : sessions) {
+            if (session.remove(ticker)) {
+                if (session.tickers.isEmpty()) {
+                    session.close();
+                    sessions.remove(session);
+                }
+                break;
             }
         }
-        isConnected = false;
-        currentTicker = null;
     }
 
-    public boolean isConnected() {
-        return isConnected && webSocketSession != null && webSocketSession.isOpen();
+    /**
+     * Registers a listener for every decoded trade. Listeners run on the session's receiving thread and get a
+     * reused {@link TradeTick}.
+     */
+    public void addTickListener(TradeTickListener listener) {
+        tickListeners.add(listener);
     }
 
-    private void processMessage(String message) {
-        try {
-            // Split message by '|' and get the third segment (index 2)
-            String[] segments = message.split("\\|");
-            if (segments.length < 3) {
-                logger.warn("Invalid message format: {}", message);
-                return;
+    public void removeTickListener(TradeTickListener listener) {
+        tickListeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener for raw data frames, such as a journal. Listeners run on the session's receiving
+     * thread before the frame is decoded, so they must be quick.
+     */
+    public void addFrameListener(FrameListener listener) {
+        frameListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener for upstream outages. Called on the thread that restores the session.
+     */
+    public void addGapListener(FeedGapListener listener) {
+        gapListeners.add(listener);
+    }
+
+    /**
+     * The most recent outages, oldest first.
+     */
+    public synchronized List<FeedGap> getRecentGaps() {
+        return new ArrayList<>(recentGaps);
+    }
+
+    public synchronized List<ConnectionState> getConnectionStates() {
+        return sessions.stream().map(session -> session.state).toList();
+    }
+
+    public synchronized boolean isSubscribed(String ticker) {
+        return subscriberCounts.containsKey(ticker);
+    }
+
+    /**
+     * Ticker → number of downstream subscribers.
+     */
+    public synchronized Map<String, Integer> getSubscriptions() {
+        return new HashMap<>(subscriberCounts);
+    }
+
+    /**
+     * Closes every upstream session until {@link #connect}. Subscriber counts are kept.
+     */
+    public synchronized void disconnect() {
+        disconnected = true;
+        sessions.forEach(UpstreamSession::close);
+        sessions.clear();
+    }
+
+    /**
+     * Reopens sessions after {@link #disconnect} and registers every ticker that still has subscribers.
+     */
+    public synchronized void connect() {
+        if (!disconnected) {
+            return;
+        }
+        disconnected = false;
+        for (String ticker : subscriberCounts.keySet()) {
+            if (!place(ticker)) {
+                logger.warn("Cannot restore {}: all {} sessions carry {} tickers", ticker, maxSessions, maxSubscriptionsPerSession);
             }
+        }
+    }
 
-            String dataSegment = segments[2];
-            String[] fields = dataSegment.split("\\^");
+    /**
+     * Closes every upstream session and stops reconnecting.
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            sessions.forEach(UpstreamSession::close);
+            sessions.clear();
+        }
+        reconnectExecutor.shutdownNow();
+    }
 
-            if (fields.length < 32) {
-                logger.warn("Insufficient data fields: {}", dataSegment);
-                return;
+    public synchronized boolean isConnected() {
+        return sessions.stream().anyMatch(UpstreamSession::isOpen);
+    }
+
+    private boolean place(String ticker) {
+        UpstreamSession session = sessionWithCapacity();
+        if (session == null) {
+            return false;
+        }
+        session.add(ticker);
+        return true;
+    }
+
+    private UpstreamSession sessionWithCapacity() {
+        for (UpstreamSession session : sessions) {
+            if (session.tickers.size() < maxSubscriptionsPerSession) {
+                return session;
             }
+        }
+        if (sessions.size() >= maxSessions) {
+            return null;
+        }
 
-            // Parse fields according to the specification
-            String ticker = fields[0];
-            String tradeTime = fields[1];
-            BigDecimal currentPrice = new BigDecimal(fields[2]);
-            BigDecimal open = new BigDecimal(fields[7]);
-            BigDecimal high = new BigDecimal(fields[8]);
-            BigDecimal low = new BigDecimal(fields[9]);
-            Long volume = Long.parseLong(fields[12]);
-            Long totalValue = Long.parseLong(fields[14]);
-            String bizDate = fields[31];
+        UpstreamSession session = new UpstreamSession();
+        sessions.add(session);
+        reconnectExecutor.execute(session::connect);
+        return session;
+    }
 
-            // Create DTO
-            RealTimeTradeData tradeData = new RealTimeTradeData(
-                ticker, tradeTime, currentPrice, open, high, low, volume, totalValue, bizDate
-            );
+    private void checkHeartbeats() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            sessions.forEach(session -> session.checkHeartbeat(now));
+        }
+    }
+
+    private void recordGap(FeedGap gap) {
+        synchronized (this) {
+            recentGaps.addLast(gap);
+            if (recentGaps.size() > MAX_RECENT_GAPS) {
+                recentGaps.removeFirst();
+            }
+        }
+        logger.warn("Feed gap of {} for {} tickers, {} to {}", gap.duration(), gap.tickers().size(), gap.from(), gap.to());
+        for (FeedGapListener listener : gapListeners) {
+            try {
+                listener.onGap(gap);
+            } catch (Exception e) {
+                logger.error("Gap listener failed", e);
+            }
+        }
+    }
 
-            // Print to console in JSON format
-            String jsonOutput = objectMapper.writeValueAsString(tradeData);
-            System.out.println(jsonOutput);
+    /**
+     * The backoff ceiling doubles per attempt up to the maximum; the delay is drawn from its upper half so
+     * sessions that dropped together do not reconnect in lockstep.
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
 
-            // TODO: Save to Redis or database in the future
-            // saveToDatabase(tradeData);
+    private static LocalDateTime toLocalDateTime(long wallClockMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(wallClockMillis), ZoneId.systemDefault());
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to process WebSocket message: {}", message, e);
+    private static void closeQuietly(Session session) {
+        try {
+            if (session.isOpen()) {
+                session.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Error closing WebSocket session", e);
         }
     }
 
-    private void scheduleReconnection() {
-        logger.info("Scheduling reconnection in 5 seconds...");
-        reconnectExecutor.schedule(() -> {
-            if (currentTicker != null && !isConnected()) {
-                logger.info("Attempting to reconnect for ticker: {}", currentTicker);
-                connect(currentTicker);
+    private void dispatch(TradeTick tick) {
+        if (tickListeners.isEmpty()) {
+            logger.debug("Received trade: {}", tick);
+            return;
+        }
+        for (TradeTickListener listener : tickListeners) {
+            try {
+                listener.onTick(tick);
+            } catch (Exception e) {
+                logger.error("Trade listener failed for {}", tick.getTicker(), e);
             }
-        }, 5, TimeUnit.SECONDS);
+        }
     }
 
-    // Inner class for WebSocket endpoint
+    /**
+     * One upstream connection and the tickers assigned to it. All state except {@link #lastReceived} is
+     * guarded by the client's lock; callbacks from a session that has already been replaced are ignored.
+     *
+     * A replaced socket may still deliver frames while its close completes, so frames are decoded one at a
+     * time under the parser's lock: the parser reuses one tick, and the tick pipeline takes a single producer
+     * per upstream connection.
+     */
     @ClientEndpoint
-    private class WebSocketClientEndpoint {
+    class UpstreamSession {
 
-        @OnOpen
-        public void onOpen(Session session) {
-            logger.info("WebSocket connection opened for ticker: {}", currentTicker);
-            webSocketSession = session;
-            isConnected = true;
+        private final Set<String> tickers = new LinkedHashSet<>();
+        private final TradeFrameParser parser = new TradeFrameParser();
+        private ConnectionState state = ConnectionState.CONNECTING;
+        // Written under the client's lock, read without it by the receiving threads
+        private volatile Session webSocketSession;
+        private int attempts;
+        private long openedAt;
+        // Set while an outage is in progress
+        private long outageStart;
+        private Set<String> outageTickers;
+        // Wall-clock millis of the last frame, written by the receiving thread
+        private volatile long lastReceived;
 
-            // Send subscription request
-            WebSocketRequest request = new WebSocketRequest(approvalKey, currentTicker);
+        /** Runs on the reconnect executor. */
+        void connect() {
+            synchronized (KoreaInvestmentWebSocketClient.this) {
+                if (state == ConnectionState.CLOSED || state == ConnectionState.OPEN) {
+                    return;
+                }
+                state = ConnectionState.CONNECTING;
+            }
             try {
-                String requestJson = objectMapper.writeValueAsString(request);
-                logger.info("Sending subscription request: {}", requestJson);
-                session.getBasicRemote().sendText(requestJson);
+                WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+                container.connectToServer(this, websocketUrl);
+            } catch (Exception e) {
+                logger.error("Failed to create WebSocket connection to {}", websocketUrl, e);
+                synchronized (KoreaInvestmentWebSocketClient.this) {
+                    connectionLost(null, "connect failed");
+                }
+            }
+        }
+
+        boolean isOpen() {
+            return state == ConnectionState.OPEN && webSocketSession != null && webSocketSession.isOpen();
+        }
+
+        void add(String ticker) {
+            tickers.add(ticker);
+            if (isOpen()) {
+                send(WebSocketRequest.REGISTER, ticker);
+            }
+            // Otherwise registered by onOpen
+        }
+
+        boolean remove(String ticker) {
+            if (!tickers.remove(ticker)) {
+                return false;
+            }
+            if (isOpen()) {
+                send(WebSocketRequest.DEREGISTER, ticker);
+            }
+            return true;
+        }
+
+        void close() {
+            state = ConnectionState.CLOSED;
+            if (webSocketSession != null) {
+                closeQuietly(webSocketSession);
+                webSocketSession = null;
+            }
+        }
+
+        void checkHeartbeat(long now) {
+            if (state == ConnectionState.OPEN && now - lastReceived > heartbeatTimeoutMillis) {
+                logger.warn("Nothing received for {} ms; treating the session as half-open", now - lastReceived);
+                Session stale = webSocketSession;
+                connectionLost(stale, "heartbeat timeout");
+                // A half-open close can block; keep it off the lock
+                reconnectExecutor.execute(() -> closeQuietly(stale));
+            }
+        }
+
+        /**
+         * Moves to {@code BACKING_OFF} and schedules the next attempt. The first loss after being open starts
+         * an outage for the tickers carried at that moment. Called under the client's lock.
+         */
+        private void connectionLost(Session lost, String reason) {
+            if (lost != null && lost != webSocketSession) {
+                return;
+            }
+            if (state == ConnectionState.CLOSED || state == ConnectionState.BACKING_OFF) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (state == ConnectionState.OPEN) {
+                outageStart = Math.max(lastReceived, openedAt);
+                outageTickers = Set.copyOf(tickers);
+                // A session that stayed up through a full backoff period starts over from the shortest delay
+                if (now - openedAt > maxBackoffMillis) {
+                    attempts = 0;
+                }
+            }
+            webSocketSession = null;
+            state = ConnectionState.BACKING_OFF;
+
+            long delay = backoffMillis(attempts++);
+            logger.info("Upstream session lost ({}); reconnect attempt {} in {} ms", reason, attempts, delay);
+            reconnectExecutor.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void send(String trType, String ticker) {
+            try {
+                String requestJson = objectMapper.writeValueAsString(new WebSocketRequest(approvalKey, trType, ticker));
+                logger.info("Sending {} request for {}", WebSocketRequest.REGISTER.equals(trType) ? "subscription" : "unsubscription", ticker);
+                webSocketSession.getBasicRemote().sendText(requestJson);
             } catch (IOException e) {
                 logger.error("Failed to send WebSocket request", e);
             }
         }
 
+        /**
+         * Echoes a heartbeat. Takes the client's lock like every other send, since a basic remote endpoint
+         * allows only one message in flight.
+         */
+        private void answerHeartbeat(Session session, String message) {
+            synchronized (KoreaInvestmentWebSocketClient.this) {
+                if (session != webSocketSession || !isOpen()) {
+                    return;
+                }
+                try {
+                    session.getBasicRemote().sendText(message);
+                } catch (IOException e) {
+                    logger.warn("Failed to answer heartbeat", e);
+                }
+            }
+        }
+
+        @OnOpen
+        public void onOpen(Session session) {
+            FeedGap gap = null;
+            synchronized (KoreaInvestmentWebSocketClient.this) {
+                if (state == ConnectionState.CLOSED) {
+                    closeQuietly(session);
+                    return;
+                }
+                webSocketSession = session;
+                state = ConnectionState.OPEN;
+                openedAt = System.currentTimeMillis();
+                lastReceived = openedAt;
+
+                // Restore every subscription this session carries, including after a reconnect
+                logger.info("WebSocket connection opened, registering {} tickers", tickers.size());
+                tickers.forEach(ticker -> send(WebSocketRequest.REGISTER, ticker));
+
+                if (outageTickers != null) {
+                    gap = new FeedGap(outageTickers, toLocalDateTime(outageStart), toLocalDateTime(openedAt));
+                    outageTickers = null;
+                }
+            }
+            if (gap != null) {
+                recordGap(gap);
+            }
+        }
+
         @OnMessage
-        public void onMessage(String message) {
-            logger.debug("Received WebSocket message: {}", message);
-            processMessage(message);
+        public void onMessage(Session session, String message) {
+            long receivedNanos = System.nanoTime();
+            if (session != webSocketSession) {
+                return;
+            }
+            lastReceived = System.currentTimeMillis();
+            if (logger.isTraceEnabled()) {
+                logger.trace("Received WebSocket message: {}", message);
+            }
+            // Subscription acknowledgements and heartbeats arrive as JSON; trade data as '|'-delimited frames
+            if (message.startsWith("{")) {
+                if (message.contains(HEARTBEAT_TR_ID)) {
+                    // KIS drops sessions that do not echo its heartbeat
+                    answerHeartbeat(session, message);
+                }
+                return;
+            }
+            synchronized (parser) {
+                // Checked again: the session may have been replaced while this thread waited
+                if (session != webSocketSession) {
+                    return;
+                }
+                for (FrameListener listener : frameListeners) {
+                    try {
+                        listener.onFrame(message);
+                    } catch (Exception e) {
+                        logger.error("Frame listener failed", e);
+                    }
+                }
+                if (parser.parse(message, receivedNanos, dispatcher) == TradeFrameParser.MALFORMED) {
+                    logger.warn("Invalid message format: {}", message);
+                }
+            }
         }
 
         @OnClose
         public void onClose(Session session, CloseReason closeReason) {
             logger.warn("WebSocket connection closed. Reason: {}", closeReason);
-            isConnected = false;
 
-            // Schedule reconnection if it was not a normal close
-            if (!closeReason.getCloseCode().equals(CloseReason.CloseCodes.NORMAL_CLOSURE) && currentTicker != null) {
-                scheduleReconnection();
+            // Reconnect unless we closed it ourselves; the server may close idle or rebalanced sessions normally
+            synchronized (KoreaInvestmentWebSocketClient.this) {
+                connectionLost(session, "closed: " + closeReason);
             }
         }
 
         @OnError
         public void onError(Session session, Throwable throwable) {
             logger.error("WebSocket error occurred", throwable);
-            isConnected = false;
+            synchronized (KoreaInvestmentWebSocketClient.this) {
+                connectionLost(session, "error: " + throwable);
+            }
+            closeQuietly(session);
         }
     }
-
-    // TODO: Implement database saving functionality
-    /*
-    private void saveToDatabase(RealTimeTradeData tradeData) {
-        // Implementation for saving to database or Redis
-        // This will be implemented in the future
-    }
-    */
-} 
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.hts.websocket;
+
+/**
+ * A processing stage fed by {@link TickPipeline}. Every consumer bean runs on its own thread and sees every
+ * tick in arrival order.
+ */
+public interface TickConsumer extends TradeTickListener {
+
+    /** Names the stage's thread and its lag gauge. */
+    String getStageName();
+
+    /**
+     * Called after the last tick of a batch that was available at once, a natural point to flush buffered work.
+     */
+    default void onBatchEnd() {
+    }
+
+    /**
+     * Whether ticks replayed from the journal on startup should be fed to this stage. Stages with side effects
+     * outside the process, which already happened before the restart, should decline.
+     */
+    default boolean acceptsReplay() {
+        return true;
+    }
+}
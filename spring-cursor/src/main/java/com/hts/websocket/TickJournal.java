@@ -0,0 +1,364 @@
+package com.hts.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Appends every raw upstream data frame to a memory-mapped journal, so the day's live state can be rebuilt
+ * after the process dies.
+ *
+ * The journal is a series of fixed-size segment files per day, {@code ticks-<yyyyMMdd>-<n>.journal}. Each
+ * record is {@code [int length][long sequence][long receivedAt][frame bytes]}, padded to 8 bytes. Writers
+ * reserve their slot with one atomic add on the segment's position and copy straight into the mapping; the
+ * length is published last, so a reader stops at the first record that was never completed. Only the thread
+ * that overflows a segment takes a lock, to map the next one. Frames are ASCII; anything else is stored as
+ * {@code '?'}.
+ *
+ * Mapped pages survive a process crash but not a power loss, and are flushed to disk on shutdown. On startup
+ * today's segments are replayed, in order, into every {@link TickConsumer} that accepts replay, before the
+ * tick pipeline starts.
+ */
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class TickJournal implements FrameListener, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickJournal.class);
+
+    private static final int MAGIC = 0x544A524E; // "TJRN"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 20;
+    private static final int ALIGNMENT = 8;
+    // Leaves int headroom for writers that reserve past the end of a full segment before it is rolled
+    private static final int MAX_SEGMENT_SIZE_MB = 1024;
+    private static final String PREFIX = "ticks-";
+    private static final String SUFFIX = ".journal";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean replayOnStartup;
+    private final ObjectProvider<TickConsumer> consumers;
+    // Sequence numbers increase in reservation order per session; frames of different sessions may interleave
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Path> replayable;
+    private volatile Segment current;
+    private volatile boolean running;
+    // Guarded by this
+    private int nextIndex;
+
+    public TickJournal(KoreaInvestmentWebSocketClient client,
+                       ObjectProvider<TickConsumer> consumers,
+                       @Value("${app.journal.dir:journal}") String directory,
+                       @Value("${app.journal.segment-size-mb:64}") int segmentSizeMb,
+                       @Value("${app.journal.replay-on-startup:true}") boolean replayOnStartup,
+                       @Value("${app.journal.retention-days:7}") int retentionDays) throws IOException {
+        if (segmentSizeMb < 1 || segmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+            throw new IllegalArgumentException("app.journal.segment-size-mb must be between 1 and "
+                    + MAX_SEGMENT_SIZE_MB + ", was " + segmentSizeMb);
+        }
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentSizeMb << 20;
+        this.replayOnStartup = replayOnStartup;
+        this.consumers = consumers;
+
+        Files.createDirectories(this.directory);
+        deleteOlderThan(LocalDate.now().minusDays(retentionDays));
+
+        // Continue today's numbering and sequence; new frames always go to a fresh segment
+        LocalDate today = LocalDate.now();
+        this.replayable = segments(today);
+        for (Path segment : replayable) {
+            sequence.set(Math.max(sequence.get(), scan(segment, null, null)));
+            nextIndex = Math.max(nextIndex, index(segment) + 1);
+        }
+        this.current = openSegment(today);
+        client.addFrameListener(this);
+        logger.info("Tick journal writing to {} from sequence {}", current.path, sequence.get() + 1);
+    }
+
+    /**
+     * Appends the frame. Called on upstream receive threads; never blocks unless a segment has to be rolled.
+     */
+    @Override
+    public void onFrame(String frame) {
+        Segment segment = current;
+        if (segment == null) {
+            return;
+        }
+        int recordBytes = align(RECORD_HEADER_BYTES + frame.length());
+        if (recordBytes > segmentBytes - FILE_HEADER_BYTES) {
+            logger.warn("Frame of {} chars does not fit a journal segment; not journaled", frame.length());
+            return;
+        }
+
+        long receivedAt = System.currentTimeMillis();
+        long seq = sequence.incrementAndGet();
+        while (true) {
+            if (receivedAt < segment.expiresAt) {
+                int position = segment.position.getAndAdd(recordBytes);
+                if (position <= segmentBytes - recordBytes) {
+                    segment.write(position, seq, receivedAt, frame);
+                    return;
+                }
+            }
+            // Segment full or from yesterday: the padding left behind reads as its end
+            segment = roll(segment);
+            if (segment == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decodes every frame in the segments, in order, into the listener and returns the last sequence number.
+     */
+    public long replay(List<Path> segments, TradeTickListener listener) throws IOException {
+        TradeFrameParser parser = new TradeFrameParser();
+        long last = 0;
+        for (Path segment : segments) {
+            last = Math.max(last, scan(segment, parser, listener));
+        }
+        return last;
+    }
+
+    /**
+     * Rebuilds in-memory state from today's journal before the pipeline stages start receiving live ticks.
+     */
+    @Override
+    public void start() {
+        running = true;
+        List<TickConsumer> targets = consumers.orderedStream().filter(TickConsumer::acceptsReplay).toList();
+        if (!replayOnStartup || targets.isEmpty() || replayable.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        long[] ticks = {0};
+        TradeTickListener fanOut = tick -> {
+            ticks[0]++;
+            for (TickConsumer consumer : targets) {
+                try {
+                    consumer.onTick(tick);
+                } catch (Exception e) {
+                    logger.error("Tick consumer {} failed on replayed {}", consumer.getStageName(), tick, e);
+                }
+            }
+        };
+        try {
+            replay(replayable, fanOut);
+        } catch (IOException e) {
+            logger.error("Journal replay stopped early", e);
+        }
+        targets.forEach(TickConsumer::onBatchEnd);
+        logger.info("Replayed {} ticks from {} journal segments into {} in {} ms", ticks[0], replayable.size(),
+                targets.stream().map(TickConsumer::getStageName).toList(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Segment segment = current;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts just before the tick pipeline, which uses the default (last) phase, and stops just after it. */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+
+    private synchronized Segment roll(Segment full) {
+        if (current != full) {
+            return current; // Another writer already rolled it
+        }
+        try {
+            current = openSegment(LocalDate.now());
+            full.buffer.force();
+            full.channel.close(); // The mapping stays valid for writers still copying into it
+            logger.debug("Tick journal rolled to {}", current.path);
+        } catch (IOException e) {
+            logger.error("Cannot open the next journal segment; journaling stops", e);
+            current = null;
+        }
+        return current;
+    }
+
+    private synchronized Segment openSegment(LocalDate day) throws IOException {
+        Path path = directory.resolve(String.format("%s%s-%06d%s", PREFIX, day.format(DAY), nextIndex++, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        long expiresAt = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new Segment(path, channel, buffer, expiresAt);
+    }
+
+    /**
+     * Walks the segment's records until the first incomplete one, decoding frames into the listener when a
+     * parser is given, and returns the last sequence number seen.
+     */
+    private static long scan(Path path, TradeFrameParser parser, TradeTickListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < FILE_HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                logger.warn("Skipping {}: not a tick journal", path);
+                return 0;
+            }
+
+            AsciiView frame = new AsciiView(buffer);
+            long last = 0;
+            int position = FILE_HEADER_BYTES;
+            while (position <= buffer.capacity() - RECORD_HEADER_BYTES) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES) {
+                    break;
+                }
+                last = Math.max(last, buffer.getLong(position + 4));
+                if (parser != null) {
+                    frame.reset(position + RECORD_HEADER_BYTES, length);
+                    if (parser.parse(frame, listener) == TradeFrameParser.MALFORMED) {
+                        logger.warn("Malformed journal record at {}:{}", path, position);
+                    }
+                }
+                position += align(RECORD_HEADER_BYTES + length);
+            }
+            return last;
+        }
+    }
+
+    private List<Path> segments(LocalDate day) throws IOException {
+        String prefix = PREFIX + day.format(DAY) + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteOlderThan(LocalDate oldest) throws IOException {
+        String cutoff = PREFIX + oldest.format(DAY);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                // Names sort by day, so a plain string comparison finds the expired ones
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX) && name.compareTo(cutoff) < 0) {
+                    Files.delete(path);
+                    logger.info("Deleted expired journal segment {}", path);
+                }
+            }
+        }
+    }
+
+    private static int index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.length() - SUFFIX.length()));
+    }
+
+    private static int align(int bytes) {
+        return (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static final class Segment {
+
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final long expiresAt;
+        final AtomicInteger position = new AtomicInteger(FILE_HEADER_BYTES);
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer, long expiresAt) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.expiresAt = expiresAt;
+        }
+
+        /** Fills the reserved slot with absolute puts, then publishes it by writing the length. */
+        void write(int position, long sequence, long receivedAt, String frame) {
+            int length = frame.length();
+            buffer.putLong(position + 4, sequence);
+            buffer.putLong(position + 12, receivedAt);
+            int offset = position + RECORD_HEADER_BYTES;
+            for (int i = 0; i < length; i++) {
+                char c = frame.charAt(i);
+                buffer.put(offset + i, c < 0x80 ? (byte) c : (byte) '?');
+            }
+            LENGTH.setRelease(buffer, position, length);
+        }
+    }
+
+    /** A reusable window onto ASCII bytes of a buffer, read as characters without copying. */
+    private static final class AsciiView implements CharSequence {
+
+        private final ByteBuffer buffer;
+        private int offset;
+        private int length;
+
+        AsciiView(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void reset(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = charAt(start + i);
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
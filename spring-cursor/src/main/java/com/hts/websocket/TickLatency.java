@@ -0,0 +1,82 @@
+package com.hts.websocket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of live trades from the moment their frame arrives on the upstream socket to each point on the way to
+ * a browser: decoded ({@code parse}), applied to the live candles ({@code aggregate}) and handed to a frontend
+ * session ({@code send}). Every stage is measured from the same receive stamp, so each includes the ones before
+ * it and {@code send} is the end-to-end figure.
+ *
+ * Each stage is a {@code tick.latency} timer keeping p50, p99 and p99.9 over a rolling two-minute window.
+ * Ticks replayed from the journal carry no stamps and are not recorded.
+ */
+@Component
+public class TickLatency {
+
+    public static final String PARSE = "parse";
+    public static final String AGGREGATE = "aggregate";
+    public static final String SEND = "send";
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final Timer parse;
+    private final Timer aggregate;
+    private final Timer send;
+    private final Map<String, Timer> stages = new LinkedHashMap<>();
+
+    public TickLatency(MeterRegistry meterRegistry) {
+        this.parse = timer(meterRegistry, PARSE, "Frame received to trade decoded");
+        this.aggregate = timer(meterRegistry, AGGREGATE, "Frame received to trade applied to the live candles");
+        this.send = timer(meterRegistry, SEND, "Frame received to trade handed to a frontend session");
+        stages.put(PARSE, parse);
+        stages.put(AGGREGATE, aggregate);
+        stages.put(SEND, send);
+    }
+
+    /** Records the decode time of a tick as handed over by the parser. */
+    public void recordParsed(TradeTick tick) {
+        if (tick.receivedNanos != 0) {
+            parse.record(tick.parsedNanos - tick.receivedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordAggregated(TradeTick tick) {
+        record(aggregate, tick.receivedNanos);
+    }
+
+    public void recordSent(TradeTick tick) {
+        record(send, tick.receivedNanos);
+    }
+
+    /** Stage name → timer, in pipeline order. */
+    public Map<String, Timer> getStages() {
+        return Collections.unmodifiableMap(stages);
+    }
+
+    private static void record(Timer timer, long receivedNanos) {
+        if (receivedNanos != 0) {
+            timer.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String stage, String description) {
+        return Timer.builder("tick.latency")
+                .description(description)
+                .tag("stage", stage)
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .distributionStatisticExpiry(Duration.ofMinutes(2))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hts.websocket;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /actuator/ticklatency}: per-stage trade latency from {@link TickLatency}, in microseconds.
+ */
+@Component
+@Endpoint(id = "ticklatency")
+public class TickLatencyEndpoint {
+
+    private final TickLatency tickLatency;
+
+    public TickLatencyEndpoint(TickLatency tickLatency) {
+        this.tickLatency = tickLatency;
+    }
+
+    @ReadOperation
+    public Map<String, StageLatency> latency() {
+        Map<String, StageLatency> stages = new LinkedHashMap<>();
+        tickLatency.getStages().forEach((stage, timer) -> stages.put(stage, summarize(timer)));
+        return stages;
+    }
+
+    private static StageLatency summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        double p50 = 0;
+        double p99 = 0;
+        double p999 = 0;
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            double micros = value.value(TimeUnit.MICROSECONDS);
+            if (value.percentile() == 0.5) {
+                p50 = micros;
+            } else if (value.percentile() == 0.99) {
+                p99 = micros;
+            } else if (value.percentile() == 0.999) {
+                p999 = micros;
+            }
+        }
+        return new StageLatency(snapshot.count(), snapshot.mean(TimeUnit.MICROSECONDS), p50, p99, p999,
+                snapshot.max(TimeUnit.MICROSECONDS));
+    }
+
+    /**
+     * Count and mean cover every trade since startup; the percentiles and max cover roughly the last two minutes.
+     */
+    public record StageLatency(long count, double mean, double p50, double p99, double p999, double max) {
+    }
+}
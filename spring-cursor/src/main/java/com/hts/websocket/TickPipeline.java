@@ -0,0 +1,204 @@
+package com.hts.websocket;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands decoded ticks from the upstream receive threads to {@link TickConsumer} stages through a pre-allocated
+ * ring buffer, so a slow stage never stalls the socket.
+ *
+ * Publishing copies the parser's tick into a ring slot; each stage reads the ring on its own thread with the
+ * configured wait strategy. When the ring is full the tick is dropped and counted rather than blocking the
+ * receive thread. Ring depth, per-stage lag and drops are published as {@code tick.pipeline.*} meters.
+ *
+ * The pipeline starts after and stops before every other bean, so on shutdown the stages drain what is already
+ * published while the beans they write to are still alive.
+ */
+@Component
+public class TickPipeline implements TradeTickListener, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickPipeline.class);
+
+    private static final EventTranslatorOneArg<TradeTick, TradeTick> COPY = (slot, sequence, tick) -> slot.copyFrom(tick);
+
+    private final KoreaInvestmentWebSocketClient client;
+    private final TickLatency latency;
+    private final Disruptor<TradeTick> disruptor;
+    private final RingBuffer<TradeTick> ringBuffer;
+    private final List<String> stageNames;
+    private final int bufferSize;
+    private final String waitStrategy;
+    private final Counter published;
+    private final Counter dropped;
+    private boolean full;
+    private volatile boolean running;
+
+    public TickPipeline(KoreaInvestmentWebSocketClient client,
+                        ObjectProvider<TickConsumer> consumerProvider,
+                        MeterRegistry meterRegistry,
+                        TickLatency latency,
+                        @Value("${app.tick-pipeline.buffer-size:65536}") int bufferSize,
+                        @Value("${app.tick-pipeline.wait-strategy:blocking}") String waitStrategy,
+                        @Value("${korea.investment.websocket.max-sessions:1}") int producers) {
+        this.client = client;
+        this.latency = latency;
+        this.bufferSize = bufferSize;
+        this.waitStrategy = waitStrategy;
+        List<TickConsumer> consumers = consumerProvider.orderedStream().toList();
+        // One stage thread per consumer, named after the stage
+        this.stageNames = consumers.stream().map(TickConsumer::getStageName).toList();
+        int[] next = {0};
+        this.disruptor = new Disruptor<>(
+                TradeTick::new,
+                bufferSize,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tick-" + stageNames.get(next[0]++ % stageNames.size()));
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                producers > 1 ? ProducerType.MULTI : ProducerType.SINGLE,
+                waitStrategy(waitStrategy));
+        disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+
+        this.published = Counter.builder("tick.pipeline.published")
+                .description("Ticks handed to the pipeline")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("tick.pipeline.dropped")
+                .description("Ticks dropped because the ring buffer was full")
+                .register(meterRegistry);
+
+        for (TickConsumer consumer : consumers) {
+            Stage stage = new Stage(consumer);
+            disruptor.handleEventsWith(stage);
+            Gauge.builder("tick.pipeline.lag", this, pipeline -> pipeline.lag(stage))
+                    .description("Ticks published but not yet processed by the stage")
+                    .tag("stage", consumer.getStageName())
+                    .register(meterRegistry);
+        }
+
+        this.ringBuffer = disruptor.getRingBuffer();
+        Gauge.builder("tick.pipeline.depth", ringBuffer, ring -> ring.getBufferSize() - ring.remainingCapacity())
+                .description("Ticks in the ring buffer not yet processed by every stage")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        disruptor.start();
+        running = true;
+        if (stageNames.isEmpty()) {
+            logger.info("No tick consumers registered; tick pipeline is idle");
+        } else {
+            client.addTickListener(this);
+            logger.info("Tick pipeline started with {} slots, {} wait strategy, stages {}", bufferSize, waitStrategy, stageNames);
+        }
+    }
+
+    /**
+     * Copies the tick into the next ring slot. Called on an upstream receive thread.
+     */
+    @Override
+    public void onTick(TradeTick tick) {
+        latency.recordParsed(tick);
+        if (ringBuffer.tryPublishEvent(COPY, tick)) {
+            published.increment();
+            full = false;
+        } else {
+            dropped.increment();
+            // Warn once per overflow episode; the counter has the totals
+            if (!full) {
+                full = true;
+                logger.warn("Tick pipeline full, dropping ticks until a stage catches up");
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        client.removeTickListener(this);
+        running = false;
+        try {
+            // Let the stages drain what is already published
+            disruptor.shutdown(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Tick pipeline did not drain within 5 seconds; halting");
+            disruptor.halt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private long lag(Stage stage) {
+        return ringBuffer.getCursor() - disruptor.getSequenceValueFor(stage);
+    }
+
+    private static WaitStrategy waitStrategy(String name) {
+        return switch (name.toLowerCase()) {
+            case "sleeping" -> new SleepingWaitStrategy();
+            case "yielding" -> new YieldingWaitStrategy();
+            case "busy-spin" -> new BusySpinWaitStrategy();
+            default -> new BlockingWaitStrategy(); // Lowest CPU use, highest wake-up latency
+        };
+    }
+
+    private static final class Stage implements EventHandler<TradeTick> {
+
+        private final TickConsumer consumer;
+
+        Stage(TickConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onEvent(TradeTick tick, long sequence, boolean endOfBatch) {
+            consumer.onTick(tick);
+            if (endOfBatch) {
+                consumer.onBatchEnd();
+            }
+        }
+    }
+
+    private static final class LoggingExceptionHandler implements ExceptionHandler<TradeTick> {
+
+        @Override
+        public void handleEventException(Throwable ex, long sequence, TradeTick tick) {
+            // Skip the tick and keep the stage running
+            logger.error("Tick consumer failed on {}", tick, ex);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            logger.error("Tick consumer failed to start", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            logger.error("Tick consumer failed to shut down", ex);
+        }
+    }
+}
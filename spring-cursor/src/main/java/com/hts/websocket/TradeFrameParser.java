@@ -0,0 +1,227 @@
+package com.hts.websocket;
+
+import com.hts.chart.Candle;
+
+/**
+ * Decodes real-time trade frames ({@code 0|H0STCNT0|<record count>|<fields joined by '^'>}) without allocating.
+ *
+ * Fields are located by scanning the frame in place and numbers are decoded digit by digit; every record is
+ * written into one reusable {@link TradeTick}. Ticker codes are interned in a small open-addressing table, so
+ * a ticker's string is created once per parser. Not thread-safe; use one parser per upstream session.
+ */
+public final class TradeFrameParser {
+
+    public static final String TR_ID = "H0STCNT0";
+
+    /** Returned by {@link #parse} for frames that do not follow the layout. */
+    public static final int MALFORMED = -1;
+
+    static final int FIELDS_PER_RECORD = 46;
+
+    // Field positions within a record
+    static final int TICKER = 0;
+    static final int TRADE_TIME = 1;
+    static final int PRICE = 2;
+    static final int CHANGE = 4;
+    static final int OPEN = 7;
+    static final int HIGH = 8;
+    static final int LOW = 9;
+    static final int VOLUME = 12;
+    static final int CUMULATIVE_VOLUME = 13;
+    static final int CUMULATIVE_VALUE = 14;
+    static final int BUSINESS_DATE = 33;
+
+    private static final int TICKER_TABLE_SIZE = 8192;
+
+    private final TradeTick tick = new TradeTick();
+    private final String[] tickers = new String[TICKER_TABLE_SIZE];
+    private int tickerCount;
+    private boolean malformed;
+
+    /**
+     * Hands every record of the frame to the listener and returns the number of records, {@code 0} for frames
+     * that are encrypted or carry another {@code tr_id}, or {@link #MALFORMED}. Records before a malformed
+     * one have already been delivered.
+     */
+    public int parse(CharSequence frame, TradeTickListener listener) {
+        return parse(frame, 0, listener);
+    }
+
+    /**
+     * As {@link #parse(CharSequence, TradeTickListener)}, stamping every record with the frame's receive time
+     * and the time it finished decoding, both from {@link System#nanoTime()}.
+     */
+    public int parse(CharSequence frame, long receivedNanos, TradeTickListener listener) {
+        int length = frame.length();
+        // Segment 0: '0' for plain data, '1' for encrypted notices
+        if (length < 2 || frame.charAt(1) != '|') {
+            return MALFORMED;
+        }
+        if (frame.charAt(0) != '0') {
+            return 0;
+        }
+
+        // Segment 1: tr_id
+        int trIdEnd = indexOf(frame, '|', 2, length);
+        if (trIdEnd < 0) {
+            return MALFORMED;
+        }
+        if (!regionEquals(TR_ID, frame, 2, trIdEnd)) {
+            return 0;
+        }
+
+        // Segment 2: record count
+        int countEnd = indexOf(frame, '|', trIdEnd + 1, length);
+        if (countEnd < 0) {
+            return MALFORMED;
+        }
+        malformed = false;
+        int count = (int) parseLong(frame, trIdEnd + 1, countEnd);
+        if (malformed || count <= 0) {
+            return MALFORMED;
+        }
+
+        // Segment 3: count × FIELDS_PER_RECORD fields, all separated by '^'
+        int pos = countEnd + 1;
+        for (int record = 0; record < count; record++) {
+            for (int field = 0; field < FIELDS_PER_RECORD; field++) {
+                if (pos > length) {
+                    return MALFORMED;
+                }
+                int end = indexOf(frame, '^', pos, length);
+                if (end < 0) {
+                    end = length;
+                }
+                decode(field, frame, pos, end);
+                pos = end + 1;
+            }
+            if (malformed) {
+                return MALFORMED;
+            }
+            tick.receivedNanos = receivedNanos;
+            tick.parsedNanos = receivedNanos == 0 ? 0 : System.nanoTime();
+            listener.onTick(tick);
+        }
+        return count;
+    }
+
+    private void decode(int field, CharSequence frame, int start, int end) {
+        switch (field) {
+            case TICKER -> tick.ticker = ticker(frame, start, end);
+            case TRADE_TIME -> tick.tradeTime = (int) parseLong(frame, start, end);
+            case PRICE -> tick.price = parseFixed(frame, start, end);
+            case CHANGE -> tick.change = parseFixed(frame, start, end);
+            case OPEN -> tick.open = parseFixed(frame, start, end);
+            case HIGH -> tick.high = parseFixed(frame, start, end);
+            case LOW -> tick.low = parseFixed(frame, start, end);
+            case VOLUME -> tick.volume = parseLong(frame, start, end);
+            case CUMULATIVE_VOLUME -> tick.cumulativeVolume = parseLong(frame, start, end);
+            case CUMULATIVE_VALUE -> tick.cumulativeValue = parseLong(frame, start, end);
+            case BUSINESS_DATE -> tick.businessDate = (int) parseLong(frame, start, end);
+            default -> {
+                // Not used
+            }
+        }
+    }
+
+    private long parseLong(CharSequence s, int start, int end) {
+        boolean negative = start < end && s.charAt(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end) {
+            malformed = true;
+            return 0;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                malformed = true;
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /** Parses a decimal into {@link Candle#PRICE_SCALE} fixed point, truncating extra fraction digits. */
+    private long parseFixed(CharSequence s, int start, int end) {
+        boolean negative = start < end && s.charAt(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end) {
+            malformed = true;
+            return 0;
+        }
+        long value = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                malformed = true;
+                return 0;
+            }
+            if (fractionDigits < Candle.PRICE_SCALE) {
+                value = value * 10 + digit;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+        }
+        for (int d = Math.max(fractionDigits, 0); d < Candle.PRICE_SCALE; d++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    private String ticker(CharSequence s, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + s.charAt(i);
+        }
+
+        int mask = tickers.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (true) {
+            String ticker = tickers[slot];
+            if (ticker == null) {
+                ticker = s.subSequence(start, end).toString();
+                // Leave headroom so probes stay short; beyond it, fall back to a fresh string
+                if (tickerCount < tickers.length * 3 / 4) {
+                    tickers[slot] = ticker;
+                    tickerCount++;
+                }
+                return ticker;
+            }
+            // String.hashCode uses the same polynomial, so a mismatch rules the slot out cheaply
+            if (ticker.hashCode() == hash && regionEquals(ticker, s, start, end)) {
+                return ticker;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(String expected, CharSequence s, int start, int end) {
+        if (expected.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (expected.charAt(i) != s.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hts.websocket;
+
+import com.hts.chart.Candle;
+
+/**
+ * Encodes single-record real-time trade frames in the layout {@link TradeFrameParser} reads, for feeding the
+ * pipeline from a simulated upstream. Fields the parser does not use are sent as {@code 0}.
+ * Not thread-safe; the builder is reused across frames.
+ */
+public final class TradeFrameWriter {
+
+    private static final long SCALE = (long) Math.pow(10, Candle.PRICE_SCALE);
+
+    private final StringBuilder frame = new StringBuilder(512);
+
+    public String write(String ticker, int businessDate, int tradeTime, long price, long change, long open, long high,
+                        long low, long volume, long cumulativeVolume, long cumulativeValue) {
+        frame.setLength(0);
+        frame.append("0|").append(TradeFrameParser.TR_ID).append("|001|");
+        for (int field = 0; field < TradeFrameParser.FIELDS_PER_RECORD; field++) {
+            if (field > 0) {
+                frame.append('^');
+            }
+            switch (field) {
+                case TradeFrameParser.TICKER -> frame.append(ticker);
+                case TradeFrameParser.TRADE_TIME -> appendTime(tradeTime);
+                case TradeFrameParser.PRICE -> appendFixed(price);
+                case TradeFrameParser.CHANGE -> appendFixed(change);
+                case TradeFrameParser.OPEN -> appendFixed(open);
+                case TradeFrameParser.HIGH -> appendFixed(high);
+                case TradeFrameParser.LOW -> appendFixed(low);
+                case TradeFrameParser.VOLUME -> frame.append(volume);
+                case TradeFrameParser.CUMULATIVE_VOLUME -> frame.append(cumulativeVolume);
+                case TradeFrameParser.CUMULATIVE_VALUE -> frame.append(cumulativeValue);
+                case TradeFrameParser.BUSINESS_DATE -> frame.append(businessDate);
+                default -> frame.append('0');
+            }
+        }
+        return frame.toString();
+    }
+
+    /** {@code HHmmss}, zero-padded. */
+    private void appendTime(int time) {
+        for (int unit = 100_000; unit > 0; unit /= 10) {
+            frame.append(time / unit % 10);
+        }
+    }
+
+    /** Whole won as an integer, as the feed sends it; otherwise with {@link Candle#PRICE_SCALE} decimals. */
+    private void appendFixed(long fixed) {
+        if (fixed < 0) {
+            frame.append('-');
+            fixed = -fixed;
+        }
+        frame.append(fixed / SCALE);
+        long fraction = fixed % SCALE;
+        if (fraction != 0) {
+            frame.append('.');
+            for (long unit = SCALE / 10; unit > 0; unit /= 10) {
+                frame.append(fraction / unit % 10);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hts.websocket;
+
+import com.hts.chart.Candle;
+
+/**
+ * One real-time trade ({@code H0STCNT0} record), decoded into primitives.
+ *
+ * Instances are reused by {@link TradeFrameParser} for every record it decodes and by {@link TickPipeline} for
+ * its ring slots, so listeners must copy what they need before returning. Prices use the {@link Candle}
+ * fixed-point encoding.
+ */
+public final class TradeTick {
+
+    String ticker;
+    int tradeTime;
+    long price;
+    long change;
+    long open;
+    long high;
+    long low;
+    long volume;
+    long cumulativeVolume;
+    long cumulativeValue;
+    int businessDate;
+    // Trace stamps from System.nanoTime(); 0 for ticks replayed from the journal
+    long receivedNanos;
+    long parsedNanos;
+
+    void copyFrom(TradeTick other) {
+        ticker = other.ticker;
+        tradeTime = other.tradeTime;
+        price = other.price;
+        change = other.change;
+        open = other.open;
+        high = other.high;
+        low = other.low;
+        volume = other.volume;
+        cumulativeVolume = other.cumulativeVolume;
+        cumulativeValue = other.cumulativeValue;
+        businessDate = other.businessDate;
+        receivedNanos = other.receivedNanos;
+        parsedNanos = other.parsedNanos;
+    }
+
+    /** Canonical instance per ticker code, safe to use as a map key. */
+    public String getTicker() {
+        return ticker;
+    }
+
+    /** Trade time as {@code HHmmss}. */
+    public int getTradeTime() {
+        return tradeTime;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    /** Price change against the previous day's close. */
+    public long getChange() {
+        return change;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /** Volume of this trade. */
+    public long getVolume() {
+        return volume;
+    }
+
+    /** Volume accumulated over the session. */
+    public long getCumulativeVolume() {
+        return cumulativeVolume;
+    }
+
+    /** Traded value accumulated over the session, in won. */
+    public long getCumulativeValue() {
+        return cumulativeValue;
+    }
+
+    /** Business date as {@code yyyyMMdd}. */
+    public int getBusinessDate() {
+        return businessDate;
+    }
+
+    /** When the frame carrying this trade arrived, from {@link System#nanoTime()}; {@code 0} when not traced. */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    /** When this trade finished decoding, from {@link System#nanoTime()}; {@code 0} when not traced. */
+    public long getParsedNanos() {
+        return parsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeTick{" + ticker + " " + businessDate + " " + tradeTime + " price=" + price
+                + " change=" + change + " open=" + open + " high=" + high + " low=" + low + " volume=" + volume + "}";
+    }
+}
@@ -0,0 +1,10 @@
+package com.hts.websocket;
+
+/**
+ * Receives decoded real-time trades. The tick is reused for the next record, so copy what you need.
+ */
+@FunctionalInterface
+public interface TradeTickListener {
+
+    void onTick(TradeTick tick);
+}
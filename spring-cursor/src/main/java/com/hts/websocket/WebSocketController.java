@@ -5,36 +5,80 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Upstream feed administration. Tickers subscribed here are held by the API as one subscriber of its own,
+ * alongside frontend sessions: repeating a subscribe holds nothing more, and an unsubscribe releases only the
+ * API's hold, never a ticker that browsers are watching.
+ */
 @RestController
 @RequestMapping("/api/websocket")
 public class WebSocketController {
 
     private final KoreaInvestmentWebSocketClient webSocketClient;
+    // Guarded by this
+    private final Set<String> heldTickers = new HashSet<>();
 
     public WebSocketController(KoreaInvestmentWebSocketClient webSocketClient) {
         this.webSocketClient = webSocketClient;
     }
 
-    @PostMapping("/connect/{ticker}")
-    public ResponseEntity<Map<String, Object>> connectToTicker(@PathVariable String ticker) {
+    @PostMapping({"/connect/{ticker}", "/subscriptions/{ticker}"})
+    public synchronized ResponseEntity<Map<String, Object>> connectToTicker(@PathVariable String ticker) {
         Map<String, Object> response = new HashMap<>();
-
-        try {
-            webSocketClient.connect(ticker);
+        response.put("ticker", ticker);
+        if (heldTickers.contains(ticker)) {
             response.put("success", true);
-            response.put("message", "WebSocket connection established for ticker: " + ticker);
-            response.put("ticker", ticker);
+            response.put("message", "Already subscribed to ticker: " + ticker);
             return ResponseEntity.ok(response);
+        }
+
+        try {
+            boolean subscribed = webSocketClient.subscribe(ticker);
+            if (subscribed) {
+                heldTickers.add(ticker);
+            }
+            response.put("success", subscribed);
+            response.put("message", subscribed
+                    ? "Subscribed to ticker: " + ticker
+                    : "Could not subscribe to ticker: " + ticker);
+            return subscribed ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "Failed to connect to WebSocket: " + e.getMessage());
-            response.put("ticker", ticker);
             return ResponseEntity.badRequest().body(response);
         }
     }
 
+    @DeleteMapping("/subscriptions/{ticker}")
+    public synchronized ResponseEntity<Map<String, Object>> unsubscribe(@PathVariable String ticker) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticker", ticker);
+        if (!heldTickers.remove(ticker)) {
+            response.put("success", false);
+            response.put("message", "Ticker was not subscribed through this API: " + ticker);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        webSocketClient.unsubscribe(ticker);
+        response.put("success", true);
+        response.put("message", "Unsubscribed from ticker: " + ticker);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/connect")
+    public ResponseEntity<Map<String, Object>> connect() {
+        Map<String, Object> response = new HashMap<>();
+
+        webSocketClient.connect();
+        response.put("success", true);
+        response.put("message", "WebSocket connection restored for " + webSocketClient.getSubscriptions().size() + " tickers");
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/disconnect")
     public ResponseEntity<Map<String, Object>> disconnect() {
         Map<String, Object> response = new HashMap<>();
@@ -57,6 +101,9 @@ public class WebSocketController {
 
         boolean isConnected = webSocketClient.isConnected();
         response.put("connected", isConnected);
+        response.put("subscriptions", webSocketClient.getSubscriptions());
+        response.put("sessions", webSocketClient.getConnectionStates());
+        response.put("gaps", webSocketClient.getRecentGaps());
         response.put("message", isConnected ? "WebSocket is connected" : "WebSocket is disconnected");
 
         return ResponseEntity.ok(response);
@@ -67,8 +114,8 @@ public class WebSocketController {
         Map<String, Object> response = new HashMap<>();
 
         response.put("message", "WebSocket test endpoint");
-        response.put("instructions", "Use POST /api/websocket/connect/{ticker} to connect to a specific ticker");
-        response.put("example", "POST /api/websocket/connect/005930");
+        response.put("instructions", "Use POST /api/websocket/subscriptions/{ticker} to hold a ticker and DELETE to release that hold; browser subscriptions are unaffected");
+        response.put("example", "POST /api/websocket/subscriptions/005930");
         response.put("note", "Make sure to set korea.investment.approval.key in application properties");
 
         return ResponseEntity.ok(response);
@@ -52,6 +52,7 @@ public class FrontendWebSocketRequest {
         public static final String SUBSCRIBE_TO_TICKER = "SUBSCRIBE_TO_TICKER";
         public static final String UNSUBSCRIBE_FROM_TICKER = "UNSUBSCRIBE_FROM_TICKER";
         public static final String GET_CHART_DATA = "GET_CHART_DATA";
+        public static final String RESYNC_CHART = "RESYNC_CHART";
         public static final String PING = "PING";
     }
     
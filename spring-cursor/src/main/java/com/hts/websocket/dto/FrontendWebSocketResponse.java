@@ -59,8 +59,11 @@ public class FrontendWebSocketResponse {
     public static class ResponseTypes {
         public static final String STOCK_DATA = "STOCK_DATA";
         public static final String CHART_DATA = "CHART_DATA";
+        public static final String CHART_SNAPSHOT = "CHART_SNAPSHOT";
+        public static final String CHART_UPDATE = "CHART_UPDATE";
         public static final String SUBSCRIPTION_CONFIRMED = "SUBSCRIPTION_CONFIRMED";
         public static final String UNSUBSCRIPTION_CONFIRMED = "UNSUBSCRIPTION_CONFIRMED";
+        public static final String TRADE = "TRADE";
         public static final String PONG = "PONG";
         public static final String ERROR = "ERROR";
     }
@@ -33,6 +33,13 @@ public class RealTimeTradeData {
     @JsonProperty("bizDate")
     private String bizDate;
 
+    // Debug only: server wall-clock millis when the frame was sent, and microseconds since the trade arrived
+    @JsonProperty("serverSentAt")
+    private Long serverSentAt;
+
+    @JsonProperty("serverLatencyMicros")
+    private Long serverLatencyMicros;
+
     public RealTimeTradeData() {}
 
     public RealTimeTradeData(String ticker, String tradeTime, BigDecimal currentPrice,
@@ -122,6 +129,22 @@ public class RealTimeTradeData {
         this.bizDate = bizDate;
     }
 
+    public Long getServerSentAt() {
+        return serverSentAt;
+    }
+
+    public void setServerSentAt(Long serverSentAt) {
+        this.serverSentAt = serverSentAt;
+    }
+
+    public Long getServerLatencyMicros() {
+        return serverLatencyMicros;
+    }
+
+    public void setServerLatencyMicros(Long serverLatencyMicros) {
+        this.serverLatencyMicros = serverLatencyMicros;
+    }
+
     @Override
     public String toString() {
         return "RealTimeTradeData{" +
@@ -4,6 +4,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class WebSocketRequest {
 
+    // tr_type values
+    public static final String REGISTER = "1";
+    public static final String DEREGISTER = "2";
+
     @JsonProperty("header")
     private Header header;
 
@@ -13,7 +17,12 @@ public class WebSocketRequest {
     public WebSocketRequest() {}
 
     public WebSocketRequest(String approvalKey, String ticker) {
+        this(approvalKey, REGISTER, ticker);
+    }
+
+    public WebSocketRequest(String approvalKey, String trType, String ticker) {
         this.header = new Header(approvalKey);
+        this.header.setTrType(trType);
         this.body = new Body(ticker);
     }
 
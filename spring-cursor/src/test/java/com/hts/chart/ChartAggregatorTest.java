@@ -0,0 +1,107 @@
+package com.hts.chart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartAggregatorTest {
+
+    private static final long T0 = Candle.toEpochMillis(LocalDateTime.of(2025, 6, 17, 9, 0));
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void rollsMinutesIntoIntervalBuckets() {
+        List<Candle> result = new ArrayList<>();
+        ChartAggregator aggregator = new ChartAggregator(ChartInterval.FIVE_MINUTES, Candle.collectInto(result));
+
+        // 09:00-09:04 in one bucket, 09:05-09:06 in the next
+        long[][] bars = {
+                {100, 110, 95, 105, 10},
+                {105, 120, 104, 118, 20},
+                {118, 119, 90, 91, 30},
+                {91, 100, 91, 99, 40},
+                {99, 101, 98, 100, 50},
+                {100, 130, 100, 125, 60},
+                {125, 126, 80, 81, 70},
+        };
+        for (int i = 0; i < bars.length; i++) {
+            long[] bar = bars[i];
+            aggregator.accept("005930", T0 + i * MINUTE, bar[0], bar[1], bar[2], bar[3], bar[4]);
+        }
+        aggregator.finish();
+
+        assertEquals(2, result.size());
+        assertCandle(result.get(0), T0, 100, 120, 90, 100, 150);
+        assertCandle(result.get(1), T0 + 5 * MINUTE, 100, 130, 80, 81, 130);
+    }
+
+    @Test
+    void bucketsAlignToIntervalBoundaries() {
+        List<Candle> result = new ArrayList<>();
+        ChartAggregator aggregator = new ChartAggregator(ChartInterval.TEN_MINUTES, Candle.collectInto(result));
+
+        // 09:07 and 09:09 share the 09:00 bucket; 09:10 opens the next one
+        aggregator.accept("005930", T0 + 7 * MINUTE, 1, 1, 1, 1, 1);
+        aggregator.accept("005930", T0 + 9 * MINUTE, 2, 2, 2, 2, 1);
+        aggregator.accept("005930", T0 + 10 * MINUTE, 3, 3, 3, 3, 1);
+        aggregator.finish();
+
+        assertEquals(2, result.size());
+        assertEquals(T0, result.get(0).getTimestamp());
+        assertEquals(2L, result.get(0).getVolume());
+        assertEquals(T0 + 10 * MINUTE, result.get(1).getTimestamp());
+    }
+
+    @Test
+    void gapsProduceNoEmptyBuckets() {
+        List<Candle> result = new ArrayList<>();
+        ChartAggregator aggregator = new ChartAggregator(ChartInterval.FIVE_MINUTES, Candle.collectInto(result));
+
+        aggregator.accept("005930", T0, 1, 1, 1, 1, 1);
+        aggregator.accept("005930", T0 + 30 * MINUTE, 2, 2, 2, 2, 1);
+        aggregator.finish();
+
+        assertEquals(2, result.size());
+        assertEquals(T0 + 30 * MINUTE, result.get(1).getTimestamp());
+    }
+
+    @Test
+    void tickerChangeClosesTheBucket() {
+        List<Candle> result = new ArrayList<>();
+        ChartAggregator aggregator = new ChartAggregator(ChartInterval.ONE_HOUR, Candle.collectInto(result));
+
+        aggregator.accept("005930", T0, 1, 1, 1, 1, 1);
+        aggregator.accept("000660", T0 + MINUTE, 2, 2, 2, 2, 1);
+        aggregator.finish();
+
+        assertEquals(2, result.size());
+        assertEquals("005930", result.get(0).getTicker());
+        assertEquals("000660", result.get(1).getTicker());
+        assertEquals(T0, result.get(1).getTimestamp());
+    }
+
+    @Test
+    void finishWithoutInputEmitsNothing() {
+        List<Candle> result = new ArrayList<>();
+        ChartAggregator aggregator = new ChartAggregator(ChartInterval.ONE_DAY, Candle.collectInto(result));
+
+        aggregator.finish();
+        aggregator.finish();
+
+        assertTrue(result.isEmpty());
+    }
+
+    private static void assertCandle(Candle candle, long timestamp, long open, long high, long low, long close, long volume) {
+        assertEquals(timestamp, candle.getTimestamp());
+        assertEquals(open, candle.getOpen());
+        assertEquals(high, candle.getHigh());
+        assertEquals(low, candle.getLow());
+        assertEquals(close, candle.getClose());
+        assertEquals(volume, candle.getVolume());
+    }
+}
@@ -0,0 +1,122 @@
+package com.hts.chart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartCsvReaderTest {
+
+    private static final String HEADER = "종목명,종목코드,영업일자,체결시간,현재가,시가,고가,저가,체결거래량,누적거래대금";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void everySplitPointParsesEachRowExactlyOnce() throws IOException {
+        Path file = write(HEADER + "\n" + rows(12) + "\r\n");
+        long size = Files.size(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (long split = 1; split < size; split++) {
+                List<Long> volumes = new ArrayList<>();
+                collectVolumes(ChartCsvReader.readChunk(channel, 0, split), volumes);
+                collectVolumes(ChartCsvReader.readChunk(channel, split, size), volumes);
+                volumes.sort(null);
+
+                assertEquals(12, volumes.size(), "split at byte " + split);
+                for (int i = 0; i < 12; i++) {
+                    assertEquals(i, (long) volumes.get(i), "split at byte " + split);
+                }
+            }
+        }
+    }
+
+    @Test
+    void chunkStartingOnALineStartOwnsThatLine() throws IOException {
+        Path file = write(HEADER + "\n" + rows(3) + "\n");
+        long secondRow = (HEADER + "\n").getBytes(StandardCharsets.UTF_8).length
+                + (row(0) + "\n").getBytes(StandardCharsets.UTF_8).length;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Long> volumes = new ArrayList<>();
+            collectVolumes(ChartCsvReader.readChunk(channel, secondRow, secondRow + 1), volumes);
+
+            assertEquals(List.of(1L), volumes);
+        }
+    }
+
+    @Test
+    void readSeriesGroupsRowsByTickerInTimeOrder() throws Exception {
+        Path file = write(HEADER + "\n"
+                + "삼성전자,005930,20250617,090100,71000,71000,71000,71000,2,0\n"
+                + "SK하이닉스,000660,20250617,090000,200000,200000,200000,200000,3,0\n"
+                + "삼성전자,005930,20250617,090000,70900,70900,70900,70900,1,0\n");
+
+        Map<String, ChartSeries> series = ChartCsvReader.readSeries(file.toString());
+
+        assertEquals(2, series.size());
+        List<ChartData> samsung = series.get("005930").all();
+        assertEquals(LocalDateTime.of(2025, 6, 17, 9, 0), samsung.get(0).getTimestamp());
+        assertEquals(LocalDateTime.of(2025, 6, 17, 9, 1), samsung.get(1).getTimestamp());
+        assertEquals(1, series.get("000660").size());
+    }
+
+    @Test
+    void fileWithoutFinalLineBreakIsRejected() throws IOException {
+        Path file = write(HEADER + "\n" + rows(2));
+
+        assertThrows(IOException.class, () -> ChartCsvReader.readSeries(file.toString()));
+    }
+
+    @Test
+    void truncatedRowIsRejected() throws IOException {
+        Path file = write(HEADER + "\n" + rows(2) + "\n" + "삼성전자,005930,2025061\n");
+
+        IOException e = assertThrows(IOException.class, () -> ChartCsvReader.readSeries(file.toString()));
+        assertTrue(e.getMessage().contains("Malformed chart row"));
+    }
+
+    @Test
+    void blankLinesAreSkipped() throws Exception {
+        Path file = write(HEADER + "\n" + rows(2) + "\n\n");
+
+        assertEquals(2, ChartCsvReader.readSeries(file.toString()).get("005930").size());
+    }
+
+    /** Rows of one ticker, a minute apart, with the row index as volume. */
+    private static String rows(int count) {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i));
+        }
+        return String.join("\n", rows);
+    }
+
+    private static String row(int i) {
+        return String.format("삼성전자,005930,20250617,09%02d00,71000,70900,71100,70800,%d,0", i, i);
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(directory, "chart", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void collectVolumes(Map<String, ChartSeries.Builder> chunk, List<Long> volumes) {
+        chunk.values().forEach(builder -> builder.build().all().forEach(candle -> volumes.add(candle.getVolume())));
+    }
+}
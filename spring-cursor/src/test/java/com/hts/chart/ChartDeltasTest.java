@@ -0,0 +1,92 @@
+package com.hts.chart;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartDeltasTest {
+
+    private static final long T0 = Candle.toEpochMillis(LocalDateTime.of(2025, 6, 17, 9, 0));
+    private static final long MINUTE = 60_000;
+
+    private final Set<String> watched = new HashSet<>(Set.of("005930", "000660"));
+    private final ChartDeltas deltas = new ChartDeltas(watched::contains);
+
+    @Test
+    void sequenceStartsAtZeroAndAdvancesOncePerNonEmptyDrain() {
+        assertEquals(0L, deltas.sequence("005930"));
+        assertNull(deltas.drain("005930"));
+
+        deltas.accept("005930", T0, 100, 100, 100, 100, 1);
+        ChartUpdate first = deltas.drain("005930");
+        assertEquals(1L, first.sequence());
+        assertNull(deltas.drain("005930"));
+
+        deltas.accept("005930", T0, 100, 110, 100, 110, 2);
+        assertEquals(2L, deltas.drain("005930").sequence());
+        assertEquals(2L, deltas.sequence("005930"));
+    }
+
+    @Test
+    void sequencesAreCountedPerTicker() {
+        deltas.accept("005930", T0, 1, 1, 1, 1, 1);
+        deltas.drain("005930");
+        deltas.accept("005930", T0, 2, 2, 2, 2, 1);
+        deltas.accept("000660", T0, 3, 3, 3, 3, 1);
+
+        assertEquals(2L, deltas.drain("005930").sequence());
+        assertEquals(1L, deltas.drain("000660").sequence());
+    }
+
+    @Test
+    void revisionsBetweenDrainsCoalesceInTimeOrder() {
+        deltas.accept("005930", T0 + MINUTE, 200, 200, 200, 200, 1);
+        deltas.accept("005930", T0, 100, 100, 100, 100, 1);
+        deltas.accept("005930", T0 + MINUTE, 200, 250, 190, 240, 7);
+
+        ChartUpdate update = deltas.drain("005930");
+
+        List<ChartDataResponse> candles = update.candles();
+        assertEquals(2, candles.size());
+        assertEquals(Candle.toLocalDateTime(T0), candles.get(0).getTimestamp());
+        ChartDataResponse revised = candles.get(1);
+        assertEquals(Candle.toLocalDateTime(T0 + MINUTE), revised.getTimestamp());
+        assertEquals(0, new BigDecimal("2.50").compareTo(revised.getHigh()));
+        assertEquals(0, new BigDecimal("2.40").compareTo(revised.getClose()));
+        assertEquals(7L, revised.getVolume());
+    }
+
+    @Test
+    void pendingTickersListsOnlyUndrainedChanges() {
+        deltas.accept("005930", T0, 1, 1, 1, 1, 1);
+        deltas.accept("000660", T0, 1, 1, 1, 1, 1);
+        deltas.drain("000660");
+
+        assertEquals(List.of("005930"), deltas.pendingTickers());
+    }
+
+    @Test
+    void unwatchedTickersAreIgnoredAndForgotten() {
+        deltas.accept("035720", T0, 1, 1, 1, 1, 1);
+        assertTrue(deltas.pendingTickers().isEmpty());
+
+        deltas.accept("005930", T0, 1, 1, 1, 1, 1);
+        deltas.drain("005930");
+        deltas.accept("005930", T0, 2, 2, 2, 2, 1);
+        watched.remove("005930");
+
+        // Pending bars are discarded with the numbering; a new subscriber starts from a fresh snapshot
+        assertNull(deltas.drain("005930"));
+        assertTrue(deltas.pendingTickers().isEmpty());
+        watched.add("005930");
+        assertEquals(0L, deltas.sequence("005930"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.hts.chart;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartQueryCacheTest {
+
+    private static final String TICKER = "005930";
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 17, 0, 0);
+    private static final long T0 = Candle.toEpochMillis(DAY.withHour(9));
+    private static final long MINUTE = 60_000;
+
+    private final ChartQueryCache cache = new ChartQueryCache(1_000_000, new SimpleMeterRegistry());
+    // Ranges handed to the loader, as "start-end" with the end exclusive
+    private final List<String> loads = new ArrayList<>();
+    // Stamped into every loaded candle's close, to tell reloaded candles from cached ones
+    private long version = 1;
+
+    @Test
+    void openBucketIsLoadedFreshAndClosedBucketsAreCached() {
+        long now = T0 + 30 * MINUTE + 20_000;
+
+        List<Candle> first = get(T0, T0 + 30 * MINUTE, ChartInterval.ONE_MINUTE, now);
+        List<Candle> second = get(T0, T0 + 30 * MINUTE, ChartInterval.ONE_MINUTE, now);
+
+        assertEquals(List.of("00:00-09:30", "09:30-09:31", "09:30-09:31"), loads);
+        assertTimestamps(first, T0, 31, MINUTE);
+        assertTimestamps(second, T0, 31, MINUTE);
+    }
+
+    @Test
+    void rollingWindowExtendsTheCachedBlockWithWhatClosedSince() {
+        get(T0, T0 + 30 * MINUTE, ChartInterval.ONE_MINUTE, T0 + 30 * MINUTE);
+        loads.clear();
+
+        // A minute later the same "last 30 minutes" window has moved on by one bucket
+        List<Candle> result = get(T0 + MINUTE, T0 + 31 * MINUTE, ChartInterval.ONE_MINUTE, T0 + 31 * MINUTE);
+
+        assertEquals(List.of("09:30-09:31", "09:31-09:32"), loads);
+        assertTimestamps(result, T0 + MINUTE, 31, MINUTE);
+    }
+
+    @Test
+    void closedRangesAreServedFromTheCacheWithoutLoading() {
+        long now = T0 + 120 * MINUTE;
+        get(T0, T0 + 60 * MINUTE, ChartInterval.ONE_MINUTE, now);
+        loads.clear();
+
+        List<Candle> result = get(T0 + 10 * MINUTE, T0 + 19 * MINUTE, ChartInterval.ONE_MINUTE, now);
+
+        assertTrue(loads.isEmpty());
+        assertTimestamps(result, T0 + 10 * MINUTE, 10, MINUTE);
+    }
+
+    @Test
+    void rangesSpanningBlocksAreAssembledInOrder() {
+        long lateEvening = T0 + 14 * 60 * MINUTE;
+        long nextMorning = T0 + 24 * 60 * MINUTE;
+
+        List<Candle> result = get(lateEvening, nextMorning, ChartInterval.ONE_MINUTE, nextMorning + 5 * MINUTE);
+
+        assertEquals(List.of("00:00-00:00", "00:00-09:05"), loads);
+        assertTimestamps(result, lateEvening, 10 * 60 + 1, MINUTE);
+    }
+
+    @Test
+    void invalidateFromReloadsOnlyFromTheChangedBucket() {
+        long now = T0 + 60 * MINUTE;
+        get(T0, now, ChartInterval.ONE_MINUTE, now);
+        get(T0, now, ChartInterval.FIVE_MINUTES, now);
+        loads.clear();
+        version = 2;
+
+        cache.invalidateFrom(TICKER, T0 + 12 * MINUTE);
+        List<Candle> minutes = get(T0, T0 + 59 * MINUTE, ChartInterval.ONE_MINUTE, now);
+        List<Candle> fives = get(T0, T0 + 55 * MINUTE, ChartInterval.FIVE_MINUTES, now);
+
+        // The 5m block is cut at the start of the bucket holding the changed minute
+        assertEquals(List.of("09:12-10:00", "09:10-10:00"), loads);
+        assertEquals(1, minutes.get(11).getClose());
+        assertEquals(2, minutes.get(12).getClose());
+        assertEquals(1, fives.get(1).getClose());
+        assertEquals(2, fives.get(2).getClose());
+    }
+
+    @Test
+    void invalidateFromKeepsEarlierBlocksAndOtherTickers() {
+        long nextDay = T0 + 24 * 60 * MINUTE;
+        long now = nextDay + 60 * MINUTE;
+        get(T0, nextDay, ChartInterval.ONE_MINUTE, now);
+        cache.get("000660", DAY.withHour(9), DAY.withHour(10), ChartInterval.ONE_MINUTE, this::load, now);
+        loads.clear();
+
+        cache.invalidateFrom(TICKER, nextDay);
+        get(T0, nextDay, ChartInterval.ONE_MINUTE, now);
+        cache.get("000660", DAY.withHour(9), DAY.withHour(10), ChartInterval.ONE_MINUTE, this::load, now);
+
+        assertEquals(List.of("09:00-10:00"), loads);
+    }
+
+    @Test
+    void invalidateAllDropsEveryBlock() {
+        long now = T0 + 60 * MINUTE;
+        get(T0, T0 + 30 * MINUTE, ChartInterval.ONE_MINUTE, now);
+        loads.clear();
+
+        cache.invalidateAll();
+        get(T0, T0 + 30 * MINUTE, ChartInterval.ONE_MINUTE, now);
+
+        assertEquals(List.of("00:00-10:00"), loads);
+    }
+
+    private List<Candle> get(long from, long to, ChartInterval interval, long now) {
+        return cache.get(TICKER, Candle.toLocalDateTime(from), Candle.toLocalDateTime(to), interval, this::load, now);
+    }
+
+    /** One candle per bucket of the range, closing at the current {@link #version}. */
+    private List<Candle> load(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
+        long start = Candle.toEpochMillis(from);
+        long end = Candle.toEpochMillis(to) + 1;
+        loads.add(from.toLocalTime() + "-" + Candle.toLocalDateTime(end).toLocalTime());
+        List<Candle> candles = new ArrayList<>();
+        for (long timestamp = start; timestamp < end; timestamp += interval.getMillis()) {
+            candles.add(new Candle(ticker, timestamp, 1, 1, 1, version, 1));
+        }
+        return candles;
+    }
+
+    private static void assertTimestamps(List<Candle> candles, long first, int count, long step) {
+        assertEquals(count, candles.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(first + i * step, candles.get(i).getTimestamp());
+        }
+    }
+}
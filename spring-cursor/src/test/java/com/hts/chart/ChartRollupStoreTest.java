@@ -0,0 +1,89 @@
+package com.hts.chart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartRollupStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 16, 0, 0);
+    private static final long T0 = Candle.toEpochMillis(START);
+    private static final long MINUTE = 60_000;
+    private static final long DAY = ChartInterval.ONE_DAY.getMillis();
+
+    @Test
+    void trimsWholeDaysAndStopsCoveringThem() {
+        ChartRollupStore store = new ChartRollupStore(2000);
+        for (int i = 0; i < 4 * 1440; i++) {
+            store.accept("005930", T0 + i * MINUTE, 100, 100, 100, 100, 1);
+        }
+
+        // 1m keeps the last two days, cut on a day boundary; 1d keeps all four
+        assertFalse(store.covers("005930", START, ChartInterval.ONE_MINUTE));
+        assertTrue(store.covers("005930", START.plusDays(2), ChartInterval.ONE_MINUTE));
+        assertTrue(store.covers("005930", START, ChartInterval.ONE_DAY));
+        assertEquals(2 * 1440, store.findCandles("005930", START, START.plusDays(4), ChartInterval.ONE_MINUTE).size());
+
+        List<Candle> days = store.findCandles("005930", START, START.plusDays(4), ChartInterval.ONE_DAY);
+        assertEquals(4, days.size());
+        assertEquals(T0 + 3 * DAY, days.get(3).getTimestamp());
+        assertEquals(1440L, days.get(3).getVolume());
+    }
+
+    @Test
+    void reloadCutsChangedTickersBackAndDropsVanishedOnes() {
+        ChartRollupStore store = new ChartRollupStore(50_000);
+        store.load(repository(Map.of("005930", 10, "000660", 5)));
+
+        // 005930 shrinks to 6 bars, 000660 is gone
+        store.reload(repository(Map.of("005930", 6)), Map.of("005930", T0 + 6 * MINUTE, "000660", Long.MIN_VALUE));
+
+        assertEquals(6, store.findCandles("005930", START, START.plusDays(1), ChartInterval.ONE_MINUTE).size());
+        List<Candle> hours = store.findCandles("005930", START, START.plusDays(1), ChartInterval.ONE_HOUR);
+        assertEquals(1, hours.size());
+        assertEquals(6L, hours.get(0).getVolume());
+        assertFalse(store.covers("000660", START, ChartInterval.ONE_MINUTE));
+    }
+
+    @Test
+    void reloadedNewTickerIsCompleteFromTheStart() {
+        ChartRollupStore store = new ChartRollupStore(50_000);
+        store.load(repository(Map.of("005930", 3)));
+
+        store.reload(repository(Map.of("005930", 3, "000660", 3)), Map.of("000660", Long.MIN_VALUE));
+
+        assertTrue(store.covers("000660", START.minusDays(30), ChartInterval.ONE_MINUTE));
+        assertEquals(3, store.findCandles("000660", START, START.plusDays(1), ChartInterval.ONE_MINUTE).size());
+    }
+
+    /** A repository replaying {@code count} 1m bars of volume 1 from {@link #START} per ticker. */
+    private static ChartRepository repository(Map<String, Integer> counts) {
+        return new ChartRepository() {
+            @Override
+            public List<ChartData> findChartData(String ticker, LocalDateTime from, LocalDateTime to, ChartInterval interval) {
+                return List.of();
+            }
+
+            @Override
+            public List<ChartData> findByTicker(String ticker) {
+                return List.of();
+            }
+
+            @Override
+            public boolean replayTo(CandleSink sink) {
+                counts.forEach((ticker, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        sink.accept(ticker, T0 + i * MINUTE, 100, 100, 100, 100, 1);
+                    }
+                });
+                return true;
+            }
+        };
+    }
+}
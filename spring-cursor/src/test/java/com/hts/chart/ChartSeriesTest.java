@@ -0,0 +1,117 @@
+package com.hts.chart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartSeriesTest {
+
+    private static final long T0 = Candle.toEpochMillis(LocalDateTime.of(2025, 6, 17, 9, 0));
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void sliceIncludesBothEnds() {
+        ChartSeries series = minutes("005930", 5);
+
+        List<ChartData> slice = series.slice(T0 + MINUTE, T0 + 3 * MINUTE);
+
+        assertEquals(3, slice.size());
+        assertEquals(Candle.toLocalDateTime(T0 + MINUTE), slice.get(0).getTimestamp());
+        assertEquals(Candle.toLocalDateTime(T0 + 3 * MINUTE), slice.get(2).getTimestamp());
+    }
+
+    @Test
+    void sliceBetweenCandlesOrOutsideIsEmpty() {
+        ChartSeries series = minutes("005930", 5);
+
+        assertTrue(series.slice(T0 + 1, T0 + MINUTE - 1).isEmpty());
+        assertTrue(series.slice(T0 + 10 * MINUTE, T0 + 20 * MINUTE).isEmpty());
+        assertTrue(series.slice(T0 + 3 * MINUTE, T0 + MINUTE).isEmpty());
+    }
+
+    @Test
+    void sliceConvertsFixedPointPrices() {
+        ChartSeries series = new ChartSeries.Builder("005930")
+                .add(T0, 7_150_000, 7_200_000, 7_100_000, 7_180_050, 1234)
+                .build();
+
+        ChartData candle = series.slice(T0, T0).get(0);
+
+        assertEquals(0, candle.getOpen().compareTo(Candle.toDecimal(7_150_000)));
+        assertEquals(0, candle.getClose().compareTo(Candle.toDecimal(7_180_050)));
+        assertEquals(1234L, candle.getVolume());
+    }
+
+    @Test
+    void builderSortsOutOfOrderRowsStably() {
+        ChartSeries series = new ChartSeries.Builder("005930")
+                .add(T0 + 2 * MINUTE, 3, 3, 3, 3, 3)
+                .add(T0, 1, 1, 1, 1, 1)
+                .add(T0 + MINUTE, 2, 2, 2, 2, 2)
+                .build();
+
+        List<ChartData> all = series.all();
+
+        assertEquals(3, all.size());
+        assertEquals(1L, all.get(0).getVolume());
+        assertEquals(2L, all.get(1).getVolume());
+        assertEquals(3L, all.get(2).getVolume());
+    }
+
+    @Test
+    void identicalSeriesHaveNoDifference() {
+        assertEquals(Long.MAX_VALUE, minutes("005930", 5).firstDifference(minutes("005930", 5)));
+    }
+
+    @Test
+    void firstDifferenceIsEarliestChangedCandle() {
+        ChartSeries before = minutes("005930", 5);
+        ChartSeries after = new ChartSeries.Builder("005930")
+                .add(T0, 100, 100, 100, 100, 0)
+                .add(T0 + MINUTE, 100, 100, 100, 100, 1)
+                .add(T0 + 2 * MINUTE, 100, 100, 100, 105, 2)
+                .add(T0 + 3 * MINUTE, 100, 100, 100, 100, 3)
+                .add(T0 + 4 * MINUTE, 100, 100, 100, 100, 4)
+                .build();
+
+        assertEquals(T0 + 2 * MINUTE, before.firstDifference(after));
+        assertEquals(T0 + 2 * MINUTE, after.firstDifference(before));
+    }
+
+    @Test
+    void appendedOrRemovedCandlesDifferAtTheFirstExtraOne() {
+        ChartSeries shorter = minutes("005930", 3);
+        ChartSeries longer = minutes("005930", 5);
+
+        assertEquals(T0 + 3 * MINUTE, shorter.firstDifference(longer));
+        assertEquals(T0 + 3 * MINUTE, longer.firstDifference(shorter));
+    }
+
+    @Test
+    void insertedCandleDiffersAtTheEarlierTimestamp() {
+        ChartSeries before = new ChartSeries.Builder("005930")
+                .add(T0, 100, 100, 100, 100, 0)
+                .add(T0 + 2 * MINUTE, 100, 100, 100, 100, 2)
+                .build();
+        ChartSeries after = new ChartSeries.Builder("005930")
+                .add(T0, 100, 100, 100, 100, 0)
+                .add(T0 + MINUTE, 100, 100, 100, 100, 1)
+                .add(T0 + 2 * MINUTE, 100, 100, 100, 100, 2)
+                .build();
+
+        assertEquals(T0 + MINUTE, before.firstDifference(after));
+    }
+
+    /** {@code count} 1m candles from {@link #T0}, each with its index as volume. */
+    private static ChartSeries minutes(String ticker, int count) {
+        ChartSeries.Builder builder = new ChartSeries.Builder(ticker);
+        for (int i = 0; i < count; i++) {
+            builder.add(T0 + i * MINUTE, 100, 100, 100, 100, i);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,208 @@
+package com.hts.chart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hts.websocket.KoreaInvestmentWebSocketClient;
+import com.hts.websocket.TickLatency;
+import com.hts.websocket.TradeFrameParser;
+import com.hts.websocket.TradeFrameWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartWriteBehindTest {
+
+    private static final long T0 = Candle.toEpochMillis(LocalDateTime.of(2025, 6, 17, 9, 0));
+    private static final long MINUTE = 60_000;
+    // Long enough that only full batches and the shutdown drain flush during a test
+    private static final long FLUSH_INTERVAL_MILLIS = 3_600_000;
+
+    private final TradeFrameWriter writer = new TradeFrameWriter();
+    private final TradeFrameParser parser = new TradeFrameParser();
+    private final FakeDatabase database = new FakeDatabase();
+    private KoreaInvestmentWebSocketClient tradeFeed;
+    private LiveCandleBuilder liveCandles;
+
+    @BeforeEach
+    void setUp() {
+        tradeFeed = new KoreaInvestmentWebSocketClient(new ObjectMapper(), "ws://localhost:1", 1, 41, 1000, 60000, 60000);
+        liveCandles = new LiveCandleBuilder(tradeFeed, new TickLatency(new SimpleMeterRegistry()), 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tradeFeed.shutdown();
+    }
+
+    @Test
+    void barUpdatesForTheSameMinuteAreWrittenOnce() throws InterruptedException {
+        ChartWriteBehind writeBehind = writeBehind(1000, 100);
+
+        writeBehind.accept("005930", T0, 100, 100, 100, 100, 1);
+        writeBehind.accept("005930", T0 + MINUTE, 300, 300, 300, 300, 1);
+        writeBehind.accept("005930", T0, 100, 150, 90, 120, 5);
+        writeBehind.accept("005930", T0, 100, 150, 90, 130, 6);
+        writeBehind.destroy();
+
+        assertEquals(2, database.candles.size());
+        List<Object> first = database.candles.get(0);
+        assertEquals(Candle.toLocalDateTime(T0), first.get(1));
+        assertEquals(0, new BigDecimal("1.30").compareTo((BigDecimal) first.get(5)));
+        assertEquals(6L, first.get(6));
+        assertEquals(Candle.toLocalDateTime(T0 + MINUTE), database.candles.get(1).get(1));
+    }
+
+    @Test
+    void rowsBeyondTheBufferAreDropped() throws InterruptedException {
+        ChartWriteBehind writeBehind = writeBehind(1000, 3);
+
+        for (long price = 1; price <= 5; price++) {
+            trade(writeBehind, price);
+        }
+        writeBehind.destroy();
+
+        assertEquals(List.of(1L, 2L, 3L), tickPrices());
+    }
+
+    @Test
+    void failedBatchResumesAfterTheLastWrittenChunk() throws InterruptedException {
+        ChartWriteBehind writeBehind = writeBehind(2, 100);
+        database.failTickCall = 2;
+
+        // Two bars fill a batch and park the flush thread in their write, so all seven ticks form one batch
+        database.candleGate = new CountDownLatch(1);
+        writeBehind.accept("005930", T0, 1, 1, 1, 1, 1);
+        writeBehind.accept("005930", T0 + MINUTE, 1, 1, 1, 1, 1);
+        assertTrue(database.candleWriteStarted.await(5, TimeUnit.SECONDS));
+        for (long price = 1; price <= 7; price++) {
+            trade(writeBehind, price);
+        }
+        database.candleGate.countDown();
+        writeBehind.destroy();
+
+        // The second chunk failed after the first went through; the retry starts at the second
+        assertEquals(1, database.failures.get());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), tickPrices());
+    }
+
+    @Test
+    void batchIsDroppedAfterRepeatedFailures() throws InterruptedException {
+        ChartWriteBehind writeBehind = writeBehind(1000, 100);
+        database.failTickCall = 0;
+
+        trade(writeBehind, 1);
+        trade(writeBehind, 2);
+        writeBehind.destroy();
+
+        assertEquals(3, database.failures.get());
+        assertTrue(database.ticks.isEmpty());
+    }
+
+    @Test
+    void startupFailsWithoutTheUniqueConstraint() {
+        database.constraints = 0;
+
+        assertThrows(IllegalStateException.class, () -> writeBehind(1000, 100));
+    }
+
+    private ChartWriteBehind writeBehind(int batchSize, int maxPending) {
+        return new ChartWriteBehind(database, liveCandles, new SimpleMeterRegistry(), FLUSH_INTERVAL_MILLIS,
+                batchSize, maxPending, maxPending);
+    }
+
+    private void trade(ChartWriteBehind writeBehind, long price) {
+        parser.parse(writer.write("005930", 20250617, 90000, price * 100, 0, price * 100, price * 100, price * 100,
+                1, 1, price * 100), writeBehind::onTick);
+    }
+
+    private List<Long> tickPrices() {
+        return database.ticks.stream().map(row -> ((BigDecimal) row.get(2)).longValue()).toList();
+    }
+
+    /**
+     * Records the parameters of every batched statement that goes through. With {@link #failTickCall} set, that
+     * tick batch call fails instead, or every one when it is {@code 0}. With {@link #candleGate} set, bar writes
+     * wait for it to open.
+     */
+    private static final class FakeDatabase extends JdbcTemplate {
+
+        final List<List<Object>> ticks = new CopyOnWriteArrayList<>();
+        final List<List<Object>> candles = new CopyOnWriteArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch candleWriteStarted = new CountDownLatch(1);
+        volatile int failTickCall = -1;
+        volatile CountDownLatch candleGate;
+        volatile int constraints = 1;
+        private final AtomicInteger tickCalls = new AtomicInteger();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            return (T) Integer.valueOf(constraints);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, BatchPreparedStatementSetter setter) {
+            boolean tick = sql.startsWith("INSERT INTO tick_data");
+            if (tick) {
+                int call = tickCalls.incrementAndGet();
+                if (failTickCall == 0 || call == failTickCall) {
+                    failures.incrementAndGet();
+                    throw new TransientDataAccessResourceException("connection reset");
+                }
+            } else {
+                candleWriteStarted.countDown();
+                awaitGate();
+            }
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                Object[] row = new Object[tick ? 5 : 7];
+                try {
+                    setter.setValues(statement(row), i);
+                } catch (SQLException e) {
+                    throw new AssertionError(e);
+                }
+                (tick ? ticks : candles).add(List.of(row));
+            }
+            return new int[setter.getBatchSize()];
+        }
+
+        private void awaitGate() {
+            CountDownLatch gate = candleGate;
+            try {
+                if (gate != null && !gate.await(5, TimeUnit.SECONDS)) {
+                    throw new AssertionError("candle gate never opened");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static PreparedStatement statement(Object[] row) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args.length == 2) {
+                            row[(Integer) args[0] - 1] = args[1];
+                        }
+                        return null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.hts.chart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrontendSessionTest {
+
+    // Every test message is ten bytes, so this limit leaves room for two queued messages but not a third
+    private static final int BUFFER_SIZE_LIMIT = 25;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Counter droppedCounter = meterRegistry.counter("dropped");
+    private final Counter conflatedCounter = meterRegistry.counter("conflated");
+    private final Browser browser = new Browser();
+    private Thread writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        browser.resume();
+        if (writer != null) {
+            writer.join(5_000);
+        }
+    }
+
+    @Test
+    void dropPolicyDropsWhatDoesNotFitAndKeepsTheSession() throws InterruptedException {
+        FrontendSession session = session(FrontendSession.OverflowPolicy.DROP);
+        stall(session, "stalled-00");
+
+        assertTrue(session.sendTrade("005930", message("trade-0001")));
+        assertFalse(session.sendTrade("005930", message("trade-0002")));
+        assertFalse(session.send(message("update-001")));
+
+        browser.resume();
+        writer.join(5_000);
+        assertEquals(List.of("stalled-00", "trade-0001"), browser.received);
+        assertEquals(2L, session.getDropped());
+        assertEquals(2.0, droppedCounter.count());
+        assertEquals(0, session.getHeldTrades());
+        assertTrue(session.isOpen());
+    }
+
+    @Test
+    void disconnectPolicyClosesTheSessionOnOverflow() {
+        FrontendSession session = session(FrontendSession.OverflowPolicy.DISCONNECT);
+        stall(session, "stalled-00");
+
+        assertTrue(session.sendTrade("005930", message("trade-0001")));
+        assertFalse(session.sendTrade("005930", message("trade-0002")));
+        assertFalse(session.sendTrade("005930", message("trade-0003")));
+
+        assertFalse(session.isOpen());
+        assertEquals(List.of(CloseStatus.SESSION_NOT_RELIABLE), browser.closedWith);
+        assertEquals(1L, session.getDropped());
+    }
+
+    @Test
+    void conflatePolicyHoldsTheLatestTradePerTickerUntilThereIsRoom() throws InterruptedException {
+        FrontendSession session = session(FrontendSession.OverflowPolicy.CONFLATE);
+        stall(session, "stalled-00");
+
+        assertTrue(session.sendTrade("005930", message("005930-001")));
+        assertFalse(session.sendTrade("005930", message("005930-002")));
+        assertFalse(session.sendTrade("005930", message("005930-003")));
+        // Queued behind the held trade even though it would fit on its own
+        assertFalse(session.sendTrade("000660", message("000660-001")));
+        assertEquals(2, session.getHeldTrades());
+        assertEquals(1L, session.getConflated());
+        assertEquals(1.0, conflatedCounter.count());
+
+        browser.resume();
+        writer.join(5_000);
+        session.flushHeldTrades();
+
+        assertEquals(0, session.getHeldTrades());
+        assertEquals(4, browser.received.size());
+        assertEquals(List.of("stalled-00", "005930-001"), browser.received.subList(0, 2));
+        assertTrue(browser.received.containsAll(List.of("005930-003", "000660-001")));
+        assertEquals(0L, session.getDropped());
+    }
+
+    @Test
+    void tradesArrivingDuringAFlushQueueBehindTheHeldTrades() throws InterruptedException {
+        FrontendSession session = session(FrontendSession.OverflowPolicy.CONFLATE);
+        stall(session, "stalled-00");
+        session.sendTrade("005930", message("005930-001"));
+        session.sendTrade("005930", message("005930-002"));
+        browser.resume();
+        writer.join(5_000);
+
+        // The flush stalls while handing over the held trade; a newer trade must not overtake it
+        browser.stall();
+        writer = new Thread(session::flushHeldTrades);
+        writer.start();
+        assertTrue(browser.sending.await(5, TimeUnit.SECONDS));
+        assertFalse(session.sendTrade("005930", message("005930-003")));
+        assertEquals(1, session.getHeldTrades());
+
+        browser.resume();
+        writer.join(5_000);
+        session.flushHeldTrades();
+
+        assertEquals(List.of("stalled-00", "005930-001", "005930-002", "005930-003"), browser.received);
+    }
+
+    private FrontendSession session(FrontendSession.OverflowPolicy policy) {
+        return new FrontendSession(browser.session, policy, 60_000, BUFFER_SIZE_LIMIT, droppedCounter,
+                conflatedCounter);
+    }
+
+    /** Sends one message from another thread and waits until the browser stops reading it. */
+    private void stall(FrontendSession session, String payload) {
+        browser.stall();
+        writer = new Thread(() -> session.send(message(payload)));
+        writer.start();
+        try {
+            assertTrue(browser.sending.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static WebSocketMessage<?> message(String payload) {
+        return new TextMessage(payload);
+    }
+
+    /** The raw session of a browser that can be made to stop reading, blocking the sender on its next write. */
+    private static final class Browser {
+
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final List<CloseStatus> closedWith = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch sending = new CountDownLatch(1);
+        private volatile CountDownLatch reading = new CountDownLatch(0);
+        private volatile boolean open = true;
+
+        final WebSocketSession session = (WebSocketSession) Proxy.newProxyInstance(
+                WebSocketSession.class.getClassLoader(), new Class<?>[]{WebSocketSession.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId", "toString" -> "browser";
+                    case "isOpen" -> open;
+                    case "sendMessage" -> {
+                        receive((WebSocketMessage<?>) args[0]);
+                        yield null;
+                    }
+                    case "close" -> {
+                        open = false;
+                        closedWith.add(args == null ? CloseStatus.NORMAL : (CloseStatus) args[0]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+
+        void stall() {
+            sending = new CountDownLatch(1);
+            reading = new CountDownLatch(1);
+        }
+
+        void resume() {
+            reading.countDown();
+        }
+
+        private void receive(WebSocketMessage<?> message) throws InterruptedException {
+            received.add((String) message.getPayload());
+            sending.countDown();
+            reading.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.hts.chart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hts.websocket.KoreaInvestmentWebSocketClient;
+import com.hts.websocket.TickLatency;
+import com.hts.websocket.TradeFrameParser;
+import com.hts.websocket.TradeFrameWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveCandleBuilderTest {
+
+    private static final String TICKER = "005930";
+    private static final int DATE = 20250617;
+    private static final long T0 = Candle.toEpochMillis(LocalDateTime.of(2025, 6, 17, 9, 0));
+    private static final long MINUTE = 60_000;
+
+    private final TradeFrameWriter writer = new TradeFrameWriter();
+    private final TradeFrameParser parser = new TradeFrameParser();
+    private KoreaInvestmentWebSocketClient tradeFeed;
+    private TickLatency latency;
+
+    @BeforeEach
+    void setUp() {
+        tradeFeed = new KoreaInvestmentWebSocketClient(new ObjectMapper(), "ws://localhost:1", 1, 41, 1000, 60000, 60000);
+        latency = new TickLatency(new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tradeFeed.shutdown();
+    }
+
+    @Test
+    void windowKeepsTheLatestClosedBarsInOrderAfterWrapping() {
+        LiveCandleBuilder builder = new LiveCandleBuilder(tradeFeed, latency, 3);
+
+        // 09:00-09:06 close seven bars into a window of three, wrapping it twice over; 09:07 stays open
+        for (int minute = 0; minute <= 7; minute++) {
+            trade(builder, minute, 0, 100 + minute, 1);
+        }
+
+        List<Candle> bars = bars(builder, 0, Long.MAX_VALUE);
+        assertEquals(4, bars.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(T0 + (4 + i) * MINUTE, bars.get(i).getTimestamp());
+            assertEquals(104 + i, bars.get(i).getClose());
+        }
+    }
+
+    @Test
+    void rangeQueriesSpanTheWrapPoint() {
+        LiveCandleBuilder builder = new LiveCandleBuilder(tradeFeed, latency, 4);
+
+        for (int minute = 0; minute <= 9; minute++) {
+            trade(builder, minute, 0, 100 + minute, 1);
+        }
+
+        // Closed 09:05-09:08 sit in slots 1, 2, 3, 0 of the ring
+        List<Candle> bars = bars(builder, T0 + 6 * MINUTE, T0 + 8 * MINUTE);
+        assertEquals(3, bars.size());
+        assertEquals(T0 + 6 * MINUTE, bars.get(0).getTimestamp());
+        assertEquals(T0 + 8 * MINUTE, bars.get(2).getTimestamp());
+
+        assertTrue(bars(builder, 0, T0 + 4 * MINUTE).isEmpty());
+        assertEquals(T0 + 9 * MINUTE, bars(builder, T0 + 9 * MINUTE, Long.MAX_VALUE).get(0).getTimestamp());
+    }
+
+    @Test
+    void lateTradeInsideTheWindowRevisesTheClosedBar() {
+        LiveCandleBuilder builder = new LiveCandleBuilder(tradeFeed, latency, 3);
+        List<Candle> published = new ArrayList<>();
+        builder.addBarListener(Candle.collectInto(published));
+
+        trade(builder, 0, 0, 100, 1);
+        trade(builder, 0, 30, 105, 2);
+        trade(builder, 1, 0, 110, 1);
+        trade(builder, 0, 59, 150, 5);
+
+        assertEquals(2, published.size());
+        assertEquals(T0, published.get(0).getTimestamp());
+        assertEquals(105, published.get(0).getClose());
+        // The late trade raises high and volume but leaves the close alone
+        Candle revised = published.get(1);
+        assertEquals(T0, revised.getTimestamp());
+        assertEquals(150, revised.getHigh());
+        assertEquals(105, revised.getClose());
+        assertEquals(8, revised.getVolume());
+        assertEquals(150, bars(builder, T0, T0).get(0).getHigh());
+    }
+
+    @Test
+    void lateTradeOlderThanTheWindowIsDropped() {
+        LiveCandleBuilder builder = new LiveCandleBuilder(tradeFeed, latency, 2);
+
+        for (int minute = 0; minute <= 4; minute++) {
+            trade(builder, minute, 0, 100, 1);
+        }
+        builder.onBatchEnd();
+        List<Candle> published = new ArrayList<>();
+        builder.addBarListener(Candle.collectInto(published));
+
+        // 09:01 was overwritten when 09:03 closed
+        trade(builder, 1, 30, 999, 1);
+        builder.onBatchEnd();
+
+        assertTrue(published.isEmpty());
+        List<Candle> bars = bars(builder, 0, Long.MAX_VALUE);
+        assertEquals(3, bars.size());
+        assertEquals(T0 + 2 * MINUTE, bars.get(0).getTimestamp());
+        for (Candle bar : bars) {
+            assertEquals(100, bar.getHigh());
+        }
+    }
+
+    @Test
+    void openBarIsPublishedAtBatchEnd() {
+        LiveCandleBuilder builder = new LiveCandleBuilder(tradeFeed, latency, 3);
+        List<Candle> published = new ArrayList<>();
+        builder.addBarListener(Candle.collectInto(published));
+
+        trade(builder, 0, 0, 100, 1);
+        trade(builder, 0, 10, 101, 1);
+        assertTrue(published.isEmpty());
+
+        builder.onBatchEnd();
+        builder.onBatchEnd();
+
+        assertEquals(1, published.size());
+        assertEquals(101, published.get(0).getClose());
+        assertEquals(2, published.get(0).getVolume());
+    }
+
+    /** Feeds one trade at 09:{@code minute}:{@code second} through the upstream frame parser. */
+    private void trade(LiveCandleBuilder builder, int minute, int second, long price, long volume) {
+        int time = 90000 + minute * 100 + second;
+        parser.parse(writer.write(TICKER, DATE, time, price, 0, price, price, price, volume, volume, price * volume),
+                builder::onTick);
+    }
+
+    private static List<Candle> bars(LiveCandleBuilder builder, long from, long to) {
+        List<Candle> result = new ArrayList<>();
+        builder.forEach(TICKER, from, to, Candle.collectInto(result));
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hts.chart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollupTierTest {
+
+    private static final long T0 = Candle.toEpochMillis(LocalDateTime.of(2025, 6, 17, 9, 0));
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void upsertKeepsBucketsSortedWhateverTheArrivalOrder() {
+        RollupTier tier = new RollupTier(ChartInterval.ONE_MINUTE);
+
+        tier.upsert(T0 + 2 * MINUTE, 3, 3, 3, 3, 3);
+        tier.upsert(T0, 1, 1, 1, 1, 1);
+        tier.upsert(T0 + 3 * MINUTE, 4, 4, 4, 4, 4);
+        tier.upsert(T0 + MINUTE, 2, 2, 2, 2, 2);
+
+        List<Candle> candles = read(tier);
+        assertEquals(4, candles.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(T0 + i * MINUTE, candles.get(i).getTimestamp());
+            assertEquals(i + 1L, candles.get(i).getVolume());
+        }
+    }
+
+    @Test
+    void upsertOfAnExistingBucketReplacesIt() {
+        RollupTier tier = new RollupTier(ChartInterval.ONE_MINUTE);
+
+        tier.upsert(T0, 100, 110, 90, 105, 10);
+        tier.upsert(T0, 100, 120, 85, 115, 25);
+
+        assertEquals(1, tier.size());
+        Candle candle = read(tier).get(0);
+        assertEquals(120L, candle.getHigh());
+        assertEquals(85L, candle.getLow());
+        assertEquals(115L, candle.getClose());
+        assertEquals(25L, candle.getVolume());
+    }
+
+    @Test
+    void upsertGrowsPastInitialCapacity() {
+        RollupTier tier = new RollupTier(ChartInterval.ONE_MINUTE);
+
+        for (int i = 999; i >= 0; i--) {
+            tier.upsert(T0 + i * MINUTE, i, i, i, i, i);
+        }
+
+        assertEquals(1000, tier.size());
+        List<Candle> candles = read(tier);
+        assertEquals(T0, candles.get(0).getTimestamp());
+        assertEquals(T0 + 999 * MINUTE, candles.get(999).getTimestamp());
+    }
+
+    @Test
+    void rollIntoRecomputesTheCoarserBucketFromScratch() {
+        RollupTier minutes = new RollupTier(ChartInterval.ONE_MINUTE);
+        RollupTier fives = new RollupTier(ChartInterval.FIVE_MINUTES);
+
+        minutes.upsert(T0, 100, 110, 95, 105, 10);
+        minutes.rollInto(fives, T0);
+        minutes.upsert(T0 + MINUTE, 105, 130, 100, 120, 20);
+        minutes.rollInto(fives, T0 + MINUTE);
+        // A revised first minute must not be counted twice
+        minutes.upsert(T0, 100, 112, 90, 106, 15);
+        minutes.rollInto(fives, T0);
+
+        assertEquals(1, fives.size());
+        Candle candle = read(fives).get(0);
+        assertEquals(T0, candle.getTimestamp());
+        assertEquals(100L, candle.getOpen());
+        assertEquals(130L, candle.getHigh());
+        assertEquals(90L, candle.getLow());
+        assertEquals(120L, candle.getClose());
+        assertEquals(35L, candle.getVolume());
+    }
+
+    @Test
+    void trimmedBucketsAreGoneAndWritesBeforeTheFloorIgnored() {
+        RollupTier tier = new RollupTier(ChartInterval.ONE_MINUTE);
+        for (int i = 0; i < 5; i++) {
+            tier.upsert(T0 + i * MINUTE, i, i, i, i, i);
+        }
+
+        tier.trimBefore(T0 + 2 * MINUTE);
+        tier.upsert(T0 + MINUTE, 9, 9, 9, 9, 9);
+
+        assertEquals(T0 + 2 * MINUTE, tier.floor());
+        assertEquals(3, tier.size());
+        assertEquals(T0 + 2 * MINUTE, read(tier).get(0).getTimestamp());
+    }
+
+    @Test
+    void rollIntoSkipsCoarserBucketsStartingBeforeTheFloor() {
+        RollupTier minutes = new RollupTier(ChartInterval.ONE_MINUTE);
+        RollupTier hours = new RollupTier(ChartInterval.ONE_HOUR);
+        minutes.upsert(T0, 1, 1, 1, 1, 10);
+        minutes.upsert(T0 + 30 * MINUTE, 2, 2, 2, 2, 20);
+        minutes.rollInto(hours, T0);
+
+        minutes.trimBefore(T0 + 30 * MINUTE);
+        minutes.upsert(T0 + 30 * MINUTE, 2, 2, 2, 2, 25);
+        minutes.rollInto(hours, T0 + 30 * MINUTE);
+
+        // Still the hour built while it was whole
+        assertEquals(30L, read(hours).get(0).getVolume());
+    }
+
+    @Test
+    void truncateDropsBucketsFromTheCut() {
+        RollupTier tier = new RollupTier(ChartInterval.ONE_MINUTE);
+        for (int i = 0; i < 5; i++) {
+            tier.upsert(T0 + i * MINUTE, i, i, i, i, i);
+        }
+
+        tier.truncateFrom(T0 + 3 * MINUTE);
+
+        assertEquals(3, tier.size());
+        assertEquals(T0 + 2 * MINUTE, read(tier).get(2).getTimestamp());
+    }
+
+    private static List<Candle> read(RollupTier tier) {
+        CandleBuffer buffer = new CandleBuffer(tier.size() + 1);
+        tier.fill(Long.MIN_VALUE, Long.MAX_VALUE, buffer);
+        List<Candle> result = new ArrayList<>();
+        buffer.drainTo("005930", Candle.collectInto(result));
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hts.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KoreaInvestmentWebSocketClientTest {
+
+    private static final long HEARTBEAT_TIMEOUT_MILLIS = 60_000;
+
+    private final TradeFrameWriter writer = new TradeFrameWriter();
+    private final List<Long> prices = new ArrayList<>();
+    private final List<String> frames = new ArrayList<>();
+    private KoreaInvestmentWebSocketClient client;
+
+    @BeforeEach
+    void setUp() {
+        // Backoff long enough that no scheduled reconnect runs during a test
+        client = new KoreaInvestmentWebSocketClient(new ObjectMapper(), "ws://localhost:1", 1, 41, 600_000, 600_000,
+                HEARTBEAT_TIMEOUT_MILLIS);
+        client.addTickListener(tick -> prices.add(tick.getPrice()));
+        client.addFrameListener(frames::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void framesFromASessionReplacedAfterAHeartbeatTimeoutAreIgnored() {
+        KoreaInvestmentWebSocketClient.UpstreamSession upstream = client.new UpstreamSession();
+        Session first = session("first");
+        Session second = session("second");
+
+        upstream.onOpen(first);
+        upstream.onMessage(first, trade(100));
+
+        // The half-open socket is abandoned but keeps delivering until its close completes
+        upstream.checkHeartbeat(System.currentTimeMillis() + 2 * HEARTBEAT_TIMEOUT_MILLIS);
+        upstream.onMessage(first, trade(101));
+        upstream.onOpen(second);
+        upstream.onMessage(first, trade(102));
+        upstream.onMessage(second, trade(200));
+
+        assertEquals(List.of(100L, 200L), prices);
+        assertEquals(2, frames.size());
+    }
+
+    @Test
+    void closingAReplacedSessionLeavesItsSuccessorOpen() {
+        KoreaInvestmentWebSocketClient.UpstreamSession upstream = client.new UpstreamSession();
+        Session first = session("first");
+        Session second = session("second");
+
+        upstream.onOpen(first);
+        upstream.checkHeartbeat(System.currentTimeMillis() + 2 * HEARTBEAT_TIMEOUT_MILLIS);
+        upstream.onOpen(second);
+        upstream.onClose(first, new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "stale"));
+        upstream.onMessage(second, trade(200));
+
+        assertEquals(List.of(200L), prices);
+        assertTrue(upstream.isOpen());
+    }
+
+    private String trade(long price) {
+        return writer.write("005930", 20250617, 90000, price, 0, price, price, price, 1, 1, price);
+    }
+
+    /** An open session that accepts and discards everything sent to it. */
+    private static Session session(String id) {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> true;
+                    case "getId", "toString" -> id;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+    }
+}
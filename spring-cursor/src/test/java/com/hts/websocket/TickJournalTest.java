@@ -0,0 +1,145 @@
+package com.hts.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TickJournalTest {
+
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 20;
+
+    @TempDir
+    Path directory;
+
+    private final TradeFrameWriter writer = new TradeFrameWriter();
+    private final List<String> frames = new ArrayList<>();
+    private final List<Long> replayedPrices = new ArrayList<>();
+    private final TradeTickListener collector = tick -> replayedPrices.add(tick.getPrice());
+    private KoreaInvestmentWebSocketClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new KoreaInvestmentWebSocketClient(new ObjectMapper(), "ws://localhost:1", 1, 41, 1000, 60000, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void replaysEveryRecordInOrder() throws IOException {
+        TickJournal journal = journal();
+        append(journal, 100, 101, 102);
+
+        long last = journal.replay(segments(), collector);
+
+        assertEquals(3L, last);
+        assertEquals(List.of(100L, 101L, 102L), replayedPrices);
+    }
+
+    @Test
+    void replayStopsAtARecordWhoseLengthWasNeverPublished() throws IOException {
+        TickJournal journal = journal();
+        append(journal, 100, 101, 102, 103);
+        journal.stop();
+
+        // A writer that reserved the third slot and died before its final length write
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), recordPosition(2));
+        }
+
+        long last = journal.replay(List.of(segment), collector);
+
+        assertEquals(2L, last);
+        assertEquals(List.of(100L, 101L), replayedPrices);
+    }
+
+    @Test
+    void replayStopsAtARecordCutOffByTheEndOfTheFile() throws IOException {
+        TickJournal journal = journal();
+        append(journal, 100, 101, 102);
+        journal.stop();
+
+        // A copy that ends halfway through the last frame, as left by a short write
+        byte[] bytes = Files.readAllBytes(segments().get(0));
+        int cut = (int) recordPosition(2) + RECORD_HEADER_BYTES + frames.get(2).length() / 2;
+        Path truncated = Files.write(directory.resolve("truncated.journal"), Arrays.copyOf(bytes, cut));
+
+        long last = journal.replay(List.of(truncated), collector);
+
+        assertEquals(2L, last);
+        assertEquals(List.of(100L, 101L), replayedPrices);
+    }
+
+    @Test
+    void restartContinuesTheSequenceAfterTheLastCompleteRecord() throws IOException {
+        TickJournal first = journal();
+        append(first, 100, 101, 102);
+        first.stop();
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), recordPosition(2));
+        }
+
+        // The restarted journal writes to a fresh segment, numbering on from the two complete records
+        TickJournal second = journal();
+        second.onFrame(writer.write("005930", 20250617, 90100, 200, 0, 200, 200, 200, 1, 1, 200));
+        List<Path> segments = segments();
+
+        assertEquals(2, segments.size());
+        assertEquals(3L, second.replay(segments, collector));
+        assertEquals(List.of(100L, 101L, 200L), replayedPrices);
+    }
+
+    @Test
+    void rejectsSegmentSizesThatWouldOverflow() {
+        assertThrows(IllegalArgumentException.class, () -> new TickJournal(client, null, directory.toString(), 0, false, 7));
+        assertThrows(IllegalArgumentException.class, () -> new TickJournal(client, null, directory.toString(), 2048, false, 7));
+    }
+
+    private TickJournal journal() throws IOException {
+        return new TickJournal(client, null, directory.toString(), 1, false, 7);
+    }
+
+    /** Journals one trade frame per price, remembering each frame for offset arithmetic. */
+    private void append(TickJournal journal, long... prices) {
+        for (long price : prices) {
+            String frame = writer.write("005930", 20250617, 90000, price, 0, price, price, price, 1, 1, price);
+            frames.add(frame);
+            journal.onFrame(frame);
+        }
+    }
+
+    /** File offset of record {@code n}, counting from zero, as written by {@link #append}. */
+    private long recordPosition(int n) {
+        long position = FILE_HEADER_BYTES;
+        for (int i = 0; i < n; i++) {
+            position += (RECORD_HEADER_BYTES + frames.get(i).length() + 7) & -8;
+        }
+        return position;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("ticks-")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.hts.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TradeFrameParserTest {
+
+    private final TradeFrameParser parser = new TradeFrameParser();
+    private final List<String> decoded = new ArrayList<>();
+    private final TradeTickListener collector = tick -> decoded.add(String.join(",",
+            tick.getTicker(),
+            String.valueOf(tick.getTradeTime()),
+            String.valueOf(tick.getPrice()),
+            String.valueOf(tick.getChange()),
+            String.valueOf(tick.getOpen()),
+            String.valueOf(tick.getHigh()),
+            String.valueOf(tick.getLow()),
+            String.valueOf(tick.getVolume()),
+            String.valueOf(tick.getCumulativeVolume()),
+            String.valueOf(tick.getCumulativeValue()),
+            String.valueOf(tick.getBusinessDate())));
+
+    @Test
+    void decodesEachFieldFromItsOffset() {
+        String frame = frame(1, record("005930", "093015", "71200", "-300", "71000", "71500", "70900", "12",
+                "845123", "60123456789", "20250617"));
+
+        assertEquals(1, parser.parse(frame, collector));
+
+        // Prices are fixed point with two fraction digits
+        assertEquals(List.of("005930,93015,7120000,-30000,7100000,7150000,7090000,12,845123,60123456789,20250617"), decoded);
+    }
+
+    @Test
+    void decodesEveryRecordOfAMultiRecordFrame() {
+        String frame = frame(2,
+                record("005930", "090000", "71000", "0", "71000", "71000", "71000", "1", "1", "71000", "20250617")
+                        + "^"
+                        + record("000660", "090001", "200000.5", "500", "199000", "201000", "198500", "3", "4", "800000", "20250617"));
+
+        assertEquals(2, parser.parse(frame, collector));
+
+        assertEquals("005930", decoded.get(0).split(",")[0]);
+        assertEquals("000660,90001,20000050,50000,19900000,20100000,19850000,3,4,800000,20250617", decoded.get(1));
+    }
+
+    @Test
+    void internsTickerStrings() {
+        List<String> tickers = new ArrayList<>();
+        String frame = frame(1, record("005930", "090000", "1", "0", "1", "1", "1", "1", "1", "1", "20250617"));
+
+        parser.parse(frame, tick -> tickers.add(tick.getTicker()));
+        parser.parse(new StringBuilder(frame), tick -> tickers.add(tick.getTicker()));
+
+        assertSame(tickers.get(0), tickers.get(1));
+    }
+
+    @Test
+    void otherTransactionsAndEncryptedFramesAreSkipped() {
+        assertEquals(0, parser.parse("0|H0STASP0|001|005930^1", collector));
+        assertEquals(0, parser.parse("1|H0STCNT0|001|encrypted", collector));
+        assertTrue(decoded.isEmpty());
+    }
+
+    @Test
+    void malformedFramesAreReported() {
+        assertEquals(TradeFrameParser.MALFORMED, parser.parse("", collector));
+        assertEquals(TradeFrameParser.MALFORMED, parser.parse("0|H0STCNT0", collector));
+        assertEquals(TradeFrameParser.MALFORMED, parser.parse("0|H0STCNT0|x|", collector));
+        // Non-numeric price
+        assertEquals(TradeFrameParser.MALFORMED, parser.parse(frame(1,
+                record("005930", "090000", "7l000", "0", "1", "1", "1", "1", "1", "1", "20250617")), collector));
+        // Two records announced, one sent
+        assertEquals(TradeFrameParser.MALFORMED, parser.parse(frame(2,
+                record("005930", "090000", "1", "0", "1", "1", "1", "1", "1", "1", "20250617")), collector));
+    }
+
+    private static String frame(int count, String records) {
+        return "0|" + TradeFrameParser.TR_ID + "|" + String.format("%03d", count) + "|" + records;
+    }
+
+    private static String record(String ticker, String time, String price, String change, String open, String high,
+                                 String low, String volume, String cumulativeVolume, String cumulativeValue,
+                                 String businessDate) {
+        String[] fields = new String[TradeFrameParser.FIELDS_PER_RECORD];
+        Arrays.fill(fields, "0");
+        fields[TradeFrameParser.TICKER] = ticker;
+        fields[TradeFrameParser.TRADE_TIME] = time;
+        fields[TradeFrameParser.PRICE] = price;
+        fields[TradeFrameParser.CHANGE] = change;
+        fields[TradeFrameParser.OPEN] = open;
+        fields[TradeFrameParser.HIGH] = high;
+        fields[TradeFrameParser.LOW] = low;
+        fields[TradeFrameParser.VOLUME] = volume;
+        fields[TradeFrameParser.CUMULATIVE_VOLUME] = cumulativeVolume;
+        fields[TradeFrameParser.CUMULATIVE_VALUE] = cumulativeValue;
+        fields[TradeFrameParser.BUSINESS_DATE] = businessDate;
+        return String.join("^", fields);
+    }
+}
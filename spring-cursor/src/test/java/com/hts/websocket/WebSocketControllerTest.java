@@ -0,0 +1,89 @@
+package com.hts.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WebSocketControllerTest {
+
+    private final CountingClient client = new CountingClient();
+    private final WebSocketController controller = new WebSocketController(client);
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void repeatedSubscribesHoldTheTickerOnce() {
+        controller.connectToTicker("005930");
+        controller.connectToTicker("005930");
+
+        assertEquals(1, client.count("005930"));
+        assertEquals(true, controller.unsubscribe("005930").getBody().get("success"));
+        assertEquals(0, client.count("005930"));
+    }
+
+    @Test
+    void unsubscribeLeavesTickersHeldByBrowsers() {
+        client.subscribe("005930");
+
+        assertEquals(false, controller.unsubscribe("005930").getBody().get("success"));
+        assertEquals(1, client.count("005930"));
+    }
+
+    @Test
+    void unsubscribeReleasesOnlyTheApiHold() {
+        client.subscribe("005930");
+        controller.connectToTicker("005930");
+
+        controller.unsubscribe("005930");
+        controller.unsubscribe("005930");
+
+        assertEquals(1, client.count("005930"));
+    }
+
+    @Test
+    void failedSubscribeHoldsNothing() {
+        client.refuse = true;
+        assertEquals(false, controller.connectToTicker("005930").getBody().get("success"));
+        client.refuse = false;
+
+        assertEquals(false, controller.unsubscribe("005930").getBody().get("success"));
+        assertEquals(0, client.count("005930"));
+    }
+
+    /** Counts subscribers per ticker in place of the upstream feed. */
+    private static final class CountingClient extends KoreaInvestmentWebSocketClient {
+
+        private final Map<String, Integer> counts = new HashMap<>();
+        volatile boolean refuse;
+
+        CountingClient() {
+            super(new ObjectMapper(), "ws://localhost:1", 1, 41, 600_000, 600_000, 60_000);
+        }
+
+        @Override
+        public synchronized boolean subscribe(String ticker) {
+            if (refuse) {
+                return false;
+            }
+            counts.merge(ticker, 1, Integer::sum);
+            return true;
+        }
+
+        @Override
+        public synchronized void unsubscribe(String ticker) {
+            counts.computeIfPresent(ticker, (key, count) -> count > 1 ? count - 1 : null);
+        }
+
+        synchronized int count(String ticker) {
+            return counts.getOrDefault(ticker, 0);
+        }
+    }
+}
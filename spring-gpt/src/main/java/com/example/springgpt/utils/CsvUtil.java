@@ -4,15 +4,124 @@ import org.apache.commons.csv.*;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 public class CsvUtil {
-    public static List<CSVRecord> readCsv(String classpathFile) throws IOException {
-        try (InputStream input = new ClassPathResource(classpathFile).getInputStream();
+    private static final long CHUNK_BYTES = 8L << 20;
+
+    /**
+     * Maps every record of a headered CSV resource, without materializing the records themselves.
+     * Resources on the file system are split into line-aligned chunks parsed on the common fork-join pool;
+     * resources inside a jar are streamed on the calling thread. Quoted fields must not contain line breaks.
+     */
+    public static <T> List<T> readCsv(String classpathFile, Function<CSVRecord, T> mapper) throws IOException {
+        ClassPathResource resource = new ClassPathResource(classpathFile);
+        if (!resource.isFile()) {
+            return readSequential(resource, mapper);
+        }
+
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            String[] header = parseHeader(read(channel, 0, bounds[0]));
+            CSVFormat format = CSVFormat.DEFAULT.builder().setHeader(header).setTrim(true).build();
+
+            List<List<T>> chunks = IntStream.range(0, bounds.length - 1)
+                    .parallel()
+                    .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1], format, mapper))
+                    .toList();
+
+            List<T> result = new ArrayList<>(chunks.stream().mapToInt(List::size).sum());
+            chunks.forEach(result::addAll);
+            return result;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> List<T> readSequential(ClassPathResource resource, Function<CSVRecord, T> mapper) throws IOException {
+        try (InputStream input = resource.getInputStream();
              Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
-            CSVFormat format = CSVFormat.DEFAULT.withFirstRecordAsHeader().withTrim();
-            return format.parse(reader).getRecords();
+            CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).setTrim(true).build();
+            List<T> result = new ArrayList<>();
+            for (CSVRecord record : format.parse(reader)) {
+                result.add(mapper.apply(record));
+            }
+            return result;
+        }
+    }
+
+    private static <T> List<T> parseChunk(FileChannel channel, long start, long end,
+                                          CSVFormat format, Function<CSVRecord, T> mapper) {
+        List<T> result = new ArrayList<>();
+        try (CSVParser parser = format.parse(new StringReader(read(channel, start, end)))) {
+            for (CSVRecord record : parser) {
+                result.add(mapper.apply(record));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the end of the header line followed by the end of each chunk, every one of them a line start.
+     */
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        long position = lineEnd(channel, 0);
+        bounds.add(position);
+        while (position < size) {
+            position = lineEnd(channel, Math.min(size, position + CHUNK_BYTES));
+            bounds.add(position);
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** Position just past the first line break at or after {@code from}, or the file size. */
+    private static long lineEnd(FileChannel channel, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (channel.read(buffer.clear(), position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position++;
+                if (buffer.get() == '\n') {
+                    return position;
+                }
+            }
+        }
+        return channel.size();
+    }
+
+    private static String read(FileChannel channel, long start, long end) {
+        try {
+            // Positional reads leave the shared channel position alone, so chunks can be read concurrently
+            ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+            int read;
+            do {
+                read = channel.read(buffer, start + buffer.position());
+            } while (read > 0 && buffer.hasRemaining());
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] parseHeader(String line) throws IOException {
+        try (CSVParser parser = CSVFormat.DEFAULT.builder().setTrim(true).build().parse(new StringReader(line))) {
+            List<String> header = new ArrayList<>();
+            for (CSVRecord record : parser) {
+                record.forEach(header::add);
+            }
+            return header.toArray(new String[0]);
         }
     }
 }